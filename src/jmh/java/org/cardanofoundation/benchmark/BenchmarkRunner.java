@@ -0,0 +1,50 @@
+package org.cardanofoundation.benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import lombok.val;
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of <code>benchmarks.jar</code>, accepts the usual JMH command line options. The GC
+ * profiler is always enabled, so every result comes with allocation rate and bytes allocated per
+ * operation (<code>gc.alloc.rate.norm</code>). Results are also written as JSON to <code>
+ * target/jmh-result.json</code> unless <code>-rff</code> is given, to be compared across versions.
+ * Listing and help options (<code>-l</code>, <code>-lp</code>, <code>-lprof</code>, <code>-lrf
+ * </code>, <code>-h</code>) are handed over to JMH and do not run any benchmark.
+ */
+public final class BenchmarkRunner {
+
+  private static final Path DEFAULT_RESULT = Path.of("target", "jmh-result.json");
+
+  private BenchmarkRunner() {}
+
+  public static void main(String[] args) throws Exception {
+    val commandLine = new CommandLineOptions(args);
+    if (commandLine.shouldHelp()
+        || commandLine.shouldList()
+        || commandLine.shouldListWithParams()
+        || commandLine.shouldListProfilers()
+        || commandLine.shouldListResultFormats()) {
+      Main.main(args);
+      return;
+    }
+
+    val options =
+        new OptionsBuilder()
+            .parent(commandLine)
+            .addProfiler(GCProfiler.class)
+            .resultFormat(commandLine.getResultFormat().orElse(ResultFormatType.JSON));
+    if (!commandLine.getResult().hasValue()) {
+      Files.createDirectories(DEFAULT_RESULT.getParent());
+      options.result(DEFAULT_RESULT.toString());
+    }
+
+    new Runner(options.build()).run();
+  }
+}
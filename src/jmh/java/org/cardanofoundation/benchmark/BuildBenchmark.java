@@ -0,0 +1,37 @@
+package org.cardanofoundation.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.cardanofoundation.list.HashedList;
+import org.cardanofoundation.merkle.MerkleElement;
+import org.cardanofoundation.merkle.MerkleTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Construction of a whole tree (and hashed list) from items. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BuildBenchmark {
+
+  @Benchmark
+  public MerkleElement<String> fromList(TreeState state) {
+    return MerkleTree.fromList(state.vavrItems, TreeState.SERIALISER);
+  }
+
+  @Benchmark
+  public MerkleElement<String> fromListParallel(TreeState state) {
+    return MerkleTree.fromListParallel(state.items, TreeState.SERIALISER);
+  }
+
+  @Benchmark
+  public HashedList<byte[]> hashedListCreate(TreeState state) {
+    return HashedList.create(state.items, TreeState.SERIALISER);
+  }
+}
@@ -0,0 +1,141 @@
+package org.cardanofoundation.benchmark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.bloxbean.cardano.client.plutus.spec.BytesPlutusData;
+import com.bloxbean.cardano.client.plutus.spec.ConstrPlutusData;
+import com.bloxbean.cardano.client.plutus.spec.ListPlutusData;
+import com.bloxbean.cardano.client.plutus.spec.PlutusData;
+import io.vavr.collection.List;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import lombok.val;
+import org.cardanofoundation.merkle.FlatMerkleTree;
+import org.cardanofoundation.merkle.MerkleCodec;
+import org.cardanofoundation.merkle.MerkleElement;
+import org.cardanofoundation.merkle.MerkleLeaf;
+import org.cardanofoundation.merkle.MerkleNode;
+import org.cardanofoundation.merkle.MerkleTree;
+import org.cardanofoundation.merkle.ProofItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compact binary encoding ({@link MerkleCodec}) versus CBOR of the Plutus data encoding. Encoded
+ * sizes of both are printed once per trial. The compact tree encoding holds hashes only, so it is
+ * compared with Plutus data of the same tree with empty items as well as with the full one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CodecBenchmark {
+
+  @Param({"1000", "100000"})
+  public int size;
+
+  private MerkleElement<String> root;
+
+  private String item;
+
+  private List<ProofItem> proof;
+
+  private byte[] encodedProof;
+
+  private byte[] encodedTree;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    val items = List.range(0, size).map(i -> "item-" + i);
+
+    root = MerkleTree.fromList(items, TreeState.SERIALISER);
+    item = items.get(size / 2);
+    proof = MerkleTree.getProof(root, size / 2).orElseThrow();
+    encodedProof = MerkleCodec.encodeProof(proof);
+    encodedTree = MerkleCodec.encodeTree(root);
+
+    System.out.printf(
+        "%nproof bytes: compact=%d, plutus=%d%n",
+        encodedProof.length, toPlutusData(proof).serializeToBytes().length);
+    System.out.printf(
+        "tree bytes: compact=%d, plutus=%d (hashes only), plutus=%d (with items)%n",
+        encodedTree.length,
+        toPlutusData(root, false).serializeToBytes().length,
+        toPlutusData(root, true).serializeToBytes().length);
+  }
+
+  @Benchmark
+  public byte[] encodeProof() {
+    return MerkleCodec.encodeProof(proof);
+  }
+
+  @Benchmark
+  public byte[] encodeProofPlutus() {
+    return toPlutusData(proof).serializeToBytes();
+  }
+
+  @Benchmark
+  public List<ProofItem> decodeProof() {
+    return MerkleCodec.decodeProof(ByteBuffer.wrap(encodedProof));
+  }
+
+  @Benchmark
+  public boolean verifyEncodedProof() {
+    return MerkleCodec.readProof(ByteBuffer.wrap(encodedProof))
+        .verify(root.itemHash(), item, TreeState.SERIALISER);
+  }
+
+  @Benchmark
+  public byte[] encodeTree() {
+    return MerkleCodec.encodeTree(root);
+  }
+
+  @Benchmark
+  public FlatMerkleTree<String> decodeTree() {
+    return MerkleCodec.decodeTree(ByteBuffer.wrap(encodedTree));
+  }
+
+  private static PlutusData toPlutusData(List<ProofItem> proof) {
+    return ListPlutusData.builder()
+        .plutusDataList(
+            proof
+                .map(
+                    item ->
+                        (PlutusData)
+                            ConstrPlutusData.of(
+                                item instanceof ProofItem.Left ? 0 : 1,
+                                BytesPlutusData.of(item.hash())))
+                .asJava())
+        .build();
+  }
+
+  private static PlutusData toPlutusData(MerkleElement<String> element, boolean withItems) {
+    if (element instanceof MerkleLeaf<String> ml) {
+      return ConstrPlutusData.of(
+          1,
+          BytesPlutusData.of(withItems ? ml.getItem().getBytes(UTF_8) : new byte[0]),
+          BytesPlutusData.of(ml.getItemHash()));
+    }
+    if (element instanceof MerkleNode<String> mn) {
+      return ConstrPlutusData.of(
+          2,
+          BytesPlutusData.of(mn.getHash()),
+          toPlutusData(mn.getLeft(), withItems),
+          toPlutusData(mn.getRight(), withItems));
+    }
+
+    return ConstrPlutusData.of(0);
+  }
+}
@@ -0,0 +1,86 @@
+package org.cardanofoundation.benchmark;
+
+import io.vavr.collection.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import lombok.val;
+import org.cardanofoundation.merkle.MerkleIndex;
+import org.cardanofoundation.merkle.MerkleTree;
+import org.cardanofoundation.merkle.ProofItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Proof generation (by item and by position) and proof verification against a built tree. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProofBenchmark {
+
+  private static final int SAMPLES = 1024;
+
+  /** Fixed sample of leaves spread over the tree, with their proofs computed up front. */
+  @State(Scope.Thread)
+  public static class Samples {
+
+    String[] items;
+
+    int[] indices;
+
+    List<ProofItem>[] proofs;
+
+    byte[] rootHash;
+
+    int cursor;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp(TreeState state) {
+      val index = MerkleIndex.create(state.root);
+
+      items = new String[SAMPLES];
+      indices = new int[SAMPLES];
+      proofs = new List[SAMPLES];
+      rootHash = state.root.itemHash();
+
+      for (int i = 0; i < SAMPLES; i++) {
+        indices[i] = (int) ((long) i * 7919 % state.size);
+        items[i] = state.items.get(indices[i]);
+        proofs[i] = index.getProof(indices[i]).orElseThrow();
+      }
+    }
+
+    int next() {
+      cursor = (cursor + 1) & (SAMPLES - 1);
+      return cursor;
+    }
+  }
+
+  @Benchmark
+  public Optional<List<ProofItem>> getProofByItem(TreeState state, Samples samples) {
+    return MerkleTree.getProof(state.root, samples.items[samples.next()], TreeState.SERIALISER);
+  }
+
+  @Benchmark
+  public Optional<List<ProofItem>> getProofByIndex(TreeState state, Samples samples) {
+    return MerkleTree.getProof(state.root, samples.indices[samples.next()]);
+  }
+
+  @Benchmark
+  public boolean verifyProof(Samples samples) {
+    val i = samples.next();
+
+    return MerkleTree.verifyProof(
+        samples.rootHash, samples.items[i], samples.proofs[i], TreeState.SERIALISER);
+  }
+}
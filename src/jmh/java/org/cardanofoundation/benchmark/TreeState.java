@@ -0,0 +1,42 @@
+package org.cardanofoundation.benchmark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.ArrayList;
+import java.util.function.Function;
+import lombok.val;
+import org.cardanofoundation.merkle.MerkleElement;
+import org.cardanofoundation.merkle.MerkleTree;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Items and a prebuilt tree shared by all benchmarks of the same size. */
+@State(Scope.Benchmark)
+public class TreeState {
+
+  static final Function<String, byte[]> SERIALISER = str -> str.getBytes(UTF_8);
+
+  @Param({"1000", "100000", "1000000", "10000000"})
+  public int size;
+
+  public java.util.List<String> items;
+
+  public io.vavr.collection.List<String> vavrItems;
+
+  public MerkleElement<String> root;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    val list = new ArrayList<String>(size);
+    for (int i = 0; i < size; i++) {
+      list.add("item-" + i);
+    }
+
+    items = list;
+    vavrItems = io.vavr.collection.List.ofAll(list);
+    root = MerkleTree.fromList(vavrItems, SERIALISER);
+  }
+}
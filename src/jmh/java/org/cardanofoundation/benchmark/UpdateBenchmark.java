@@ -0,0 +1,31 @@
+package org.cardanofoundation.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.cardanofoundation.merkle.MerkleElement;
+import org.cardanofoundation.merkle.MerkleTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Single item updates of a built tree, the original tree is left untouched by both operations. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UpdateBenchmark {
+
+  @Benchmark
+  public MerkleElement<String> add(TreeState state) {
+    return MerkleTree.add(state.root, "new-item", TreeState.SERIALISER);
+  }
+
+  @Benchmark
+  public MerkleElement<String> remove(TreeState state) {
+    return MerkleTree.remove(state.root, state.items.get(state.size / 2), TreeState.SERIALISER);
+  }
+}
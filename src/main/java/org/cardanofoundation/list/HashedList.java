@@ -10,6 +10,25 @@ public record HashedList<T>(List<T> list, byte[] hash) {
   public static <T> HashedList<byte[]> create(List<T> items, Function<T, byte[]> hasher) {
     val hashedItems = items.stream().map(hasher).toList();
 
+    return fold(hashedItems);
+  }
+
+  /**
+   * Same as {@link #create(List, Function)}, but items are hashed in parallel on the common
+   * fork-join pool. Only the chaining of item hashes is sequential, the result is identical.
+   *
+   * @param items - original items
+   * @param hasher - function hashing an item, must be safe to call from multiple threads
+   * @return - hashed list
+   * @param <T> - user defined item type
+   */
+  public static <T> HashedList<byte[]> createParallel(List<T> items, Function<T, byte[]> hasher) {
+    val hashedItems = items.parallelStream().map(hasher).toList();
+
+    return fold(hashedItems);
+  }
+
+  private static HashedList<byte[]> fold(List<byte[]> hashedItems) {
     val zero = Hashing.sha2_256(new byte[0]);
 
     val hash = hashedItems.stream().reduce(zero, Hashing::combineHash);
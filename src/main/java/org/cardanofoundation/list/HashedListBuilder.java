@@ -0,0 +1,103 @@
+package org.cardanofoundation.list;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import lombok.val;
+import org.cardanofoundation.util.Hashing;
+
+/**
+ * Builds a {@link HashedList} one item at a time. The running hash is extended on every append (one
+ * hash per item), so the hash is available at any point without folding the whole list again.
+ * Resulting list and hash are identical to {@link HashedList#create(List, Function)} for the same
+ * items. An append which fails (e.g. the hasher throws) leaves the builder as it was. Instances are
+ * not thread safe.
+ *
+ * @param <T> - user defined item type
+ */
+public final class HashedListBuilder<T> implements Consumer<T> {
+
+  private final Function<T, byte[]> hasher;
+
+  private final ArrayList<byte[]> hashedItems;
+
+  private byte[] hash;
+
+  /** Buffer the next hash is computed into, swapped with {@link #hash} once an append succeeds. */
+  private byte[] next;
+
+  private HashedListBuilder(Function<T, byte[]> hasher, List<byte[]> hashedItems, byte[] hash) {
+    this.hasher = hasher;
+    this.hashedItems = new ArrayList<>(hashedItems);
+    this.hash = hash.clone();
+    this.next = new byte[hash.length];
+  }
+
+  /**
+   * Creates a builder for an empty list.
+   *
+   * @param hasher - function hashing an item
+   * @return - builder
+   * @param <T> - user defined item type
+   */
+  public static <T> HashedListBuilder<T> create(Function<T, byte[]> hasher) {
+    return new HashedListBuilder<>(hasher, List.of(), Hashing.sha2_256(new byte[0]));
+  }
+
+  /**
+   * Creates a builder continuing an existing list, its items are not hashed again.
+   *
+   * @param hashedList - list previously created by {@link HashedList#create} or {@link #build()}
+   * @param hasher - function hashing an item
+   * @return - builder
+   * @param <T> - user defined item type
+   */
+  public static <T> HashedListBuilder<T> from(
+      HashedList<byte[]> hashedList, Function<T, byte[]> hasher) {
+    return new HashedListBuilder<>(hasher, hashedList.list(), hashedList.hash());
+  }
+
+  /**
+   * Appends an item to the end of the list.
+   *
+   * @param item - user defined item
+   */
+  @Override
+  public void accept(T item) {
+    val itemHash = hasher.apply(item);
+    Hashing.combineHash(hash, itemHash, next);
+
+    hashedItems.add(itemHash);
+    val previous = hash;
+    hash = next;
+    next = previous;
+  }
+
+  /**
+   * Appends an item to the end of the list.
+   *
+   * @param item - user defined item
+   * @return - this builder
+   */
+  public HashedListBuilder<T> append(T item) {
+    accept(item);
+
+    return this;
+  }
+
+  /** Returns number of items appended so far (including the ones of a continued list). */
+  public int size() {
+    return hashedItems.size();
+  }
+
+  /** Returns hash of the items appended so far. */
+  public byte[] hash() {
+    return hash.clone();
+  }
+
+  /** Returns hashed list of the items appended so far, the builder can still be used afterwards. */
+  public HashedList<byte[]> build() {
+    return new HashedList<>(List.copyOf(hashedItems), hash());
+  }
+}
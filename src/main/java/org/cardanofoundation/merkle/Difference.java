@@ -0,0 +1,22 @@
+package org.cardanofoundation.merkle;
+
+/**
+ * Leaf position at which two Merkle Trees differ, see {@link MerkleTree#diff}.
+ *
+ * @param index - leaf position (zero based)
+ * @param from - leaf of the first tree, <code>null</code> when the first tree is shorter
+ * @param to - leaf of the second tree, <code>null</code> when the second tree is shorter
+ * @param <T> - user defined type backing this Merkle Tree
+ */
+public record Difference<T>(int index, MerkleLeaf<T> from, MerkleLeaf<T> to) {
+
+  /** Returns item of the first tree at this position, <code>null</code> when there is none. */
+  public T fromItem() {
+    return from == null ? null : from.getItem();
+  }
+
+  /** Returns item of the second tree at this position, <code>null</code> when there is none. */
+  public T toItem() {
+    return to == null ? null : to.getItem();
+  }
+}
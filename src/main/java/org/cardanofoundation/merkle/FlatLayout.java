@@ -0,0 +1,240 @@
+package org.cardanofoundation.merkle;
+
+import static org.cardanofoundation.util.Hashing.combineHash;
+
+import io.vavr.collection.List;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.function.IntFunction;
+import lombok.val;
+
+/**
+ * Pre-order layout of node hashes of a Merkle Tree shaped by {@link MerkleTree#fromList} in a
+ * single buffer.
+ *
+ * <p>A tree with <code>n</code> leaves has <code>2n - 1</code> nodes, each taking a 32 byte slot.
+ * The node in slot <code>p</code> with <code>k</code> leaves underneath has its left child (with
+ * <code>k / 2</code> leaves) in slot <code>p + 1</code> and its right child in slot <code>
+ * p + 2 * (k / 2)</code>, so children are found with index arithmetic only.
+ */
+final class FlatLayout {
+
+  static final int HASH_SIZE = 32;
+
+  /** Largest number of leaves whose nodes still fit into a single buffer. */
+  static final int MAX_LEAVES = (Integer.MAX_VALUE / HASH_SIZE + 1) / 2;
+
+  private FlatLayout() {}
+
+  static int byteSize(int leaves) {
+    if (leaves < 0 || leaves > MAX_LEAVES) {
+      throw new IllegalArgumentException("Unsupported number of leaves: " + leaves);
+    }
+
+    return leaves == 0 ? 0 : (2 * leaves - 1) * HASH_SIZE;
+  }
+
+  /** Writes all node hashes of a tree with the given leaf hashes, returns the root hash. */
+  static byte[] build(ByteBuffer buffer, int base, int leaves, IntFunction<byte[]> leafHashFn) {
+    if (leaves == 0) {
+      return new byte[0];
+    }
+
+    return build(buffer, base, 0, 0, leaves, leafHashFn);
+  }
+
+  private static byte[] build(
+      ByteBuffer buffer, int base, int slot, int start, int size, IntFunction<byte[]> leafHashFn) {
+    if (size == 1) {
+      val hash = leafHashFn.apply(start);
+      buffer.put(offset(base, slot), hash);
+
+      return hash;
+    }
+
+    val cutOff = size / 2;
+    val left = build(buffer, base, slot + 1, start, cutOff, leafHashFn);
+    val right = build(buffer, base, slot + 2 * cutOff, start + cutOff, size - cutOff, leafHashFn);
+
+    val hash = combineHash(left, right);
+    buffer.put(offset(base, slot), hash);
+
+    return hash;
+  }
+
+  /** Writes node hashes of an existing object graph, which has to follow the layout's shape. */
+  static <T> void copy(ByteBuffer buffer, int base, MerkleElement<T> root, int leaves) {
+    if (leaves > 0) {
+      copy(buffer, base, 0, root, leaves);
+    }
+  }
+
+  private static <T> void copy(
+      ByteBuffer buffer, int base, int slot, MerkleElement<T> element, int size) {
+    buffer.put(offset(base, slot), element.itemHash());
+
+    if (element instanceof MerkleNode<T> mn) {
+      val cutOff = size / 2;
+      copy(buffer, base, slot + 1, mn.getLeft(), cutOff);
+      copy(buffer, base, slot + 2 * cutOff, mn.getRight(), size - cutOff);
+    }
+  }
+
+  /** Checks that the hash of every node is the combination of the hashes of its children. */
+  static boolean isConsistent(ByteBuffer buffer, int base, int leaves) {
+    return leaves == 0 || isConsistent(buffer, base, 0, leaves);
+  }
+
+  private static boolean isConsistent(ByteBuffer buffer, int base, int slot, int size) {
+    if (size == 1) {
+      return true;
+    }
+
+    val cutOff = size / 2;
+    val leftSlot = slot + 1;
+    val rightSlot = slot + 2 * cutOff;
+    val hash = combineHash(hashAt(buffer, base, leftSlot), hashAt(buffer, base, rightSlot));
+
+    return matches(buffer, offset(base, slot), hash)
+        && isConsistent(buffer, base, leftSlot, cutOff)
+        && isConsistent(buffer, base, rightSlot, size - cutOff);
+  }
+
+  static byte[] hashAt(ByteBuffer buffer, int base, int slot) {
+    val hash = new byte[HASH_SIZE];
+    buffer.get(offset(base, slot), hash);
+
+    return hash;
+  }
+
+  static Optional<List<ProofItem>> proof(ByteBuffer buffer, int base, int leaves, int index) {
+    if (index < 0 || index >= leaves) {
+      return Optional.empty();
+    }
+
+    var proof = List.<ProofItem>empty();
+    var slot = 0;
+    var size = leaves;
+
+    while (size > 1) {
+      val cutOff = size / 2;
+      val leftSlot = slot + 1;
+      val rightSlot = slot + 2 * cutOff;
+
+      if (index < cutOff) {
+        proof = proof.prepend(new ProofItem.Right(hashAt(buffer, base, rightSlot)));
+        slot = leftSlot;
+        size = cutOff;
+      } else {
+        proof = proof.prepend(new ProofItem.Left(hashAt(buffer, base, leftSlot)));
+        slot = rightSlot;
+        index -= cutOff;
+        size -= cutOff;
+      }
+    }
+
+    return Optional.of(proof);
+  }
+
+  /** Replaces hash of a single leaf and rehashes its ancestors, the shape stays the same. */
+  static void updateLeaf(ByteBuffer buffer, int base, int leaves, int index, byte[] leafHash) {
+    if (index < 0 || index >= leaves) {
+      throw new IndexOutOfBoundsException(index);
+    }
+
+    // slots of the ancestors together with slots of their children, root first
+    val path = new int[3 * 32];
+    var depth = 0;
+    var slot = 0;
+    var size = leaves;
+
+    while (size > 1) {
+      val cutOff = size / 2;
+      path[3 * depth] = slot;
+      path[3 * depth + 1] = slot + 1;
+      path[3 * depth + 2] = slot + 2 * cutOff;
+      depth++;
+
+      if (index < cutOff) {
+        slot = slot + 1;
+        size = cutOff;
+      } else {
+        slot = slot + 2 * cutOff;
+        index -= cutOff;
+        size -= cutOff;
+      }
+    }
+
+    buffer.put(offset(base, slot), leafHash);
+
+    for (int i = depth - 1; i >= 0; i--) {
+      val hash =
+          combineHash(hashAt(buffer, base, path[3 * i + 1]), hashAt(buffer, base, path[3 * i + 2]));
+      buffer.put(offset(base, path[3 * i]), hash);
+    }
+  }
+
+  /** Returns position of the first leaf with the given hash or -1 if there is none. */
+  static int indexOfHash(ByteBuffer buffer, int base, int leaves, byte[] hash) {
+    if (leaves == 0 || hash.length != HASH_SIZE) {
+      return -1;
+    }
+
+    return indexOfHash(buffer, base, 0, 0, leaves, hash);
+  }
+
+  private static int indexOfHash(
+      ByteBuffer buffer, int base, int slot, int start, int size, byte[] hash) {
+    if (size == 1) {
+      return matches(buffer, offset(base, slot), hash) ? start : -1;
+    }
+
+    val cutOff = size / 2;
+    val left = indexOfHash(buffer, base, slot + 1, start, cutOff, hash);
+    if (left >= 0) {
+      return left;
+    }
+
+    return indexOfHash(buffer, base, slot + 2 * cutOff, start + cutOff, size - cutOff, hash);
+  }
+
+  private static boolean matches(ByteBuffer buffer, int offset, byte[] hash) {
+    for (int i = 0; i < HASH_SIZE; i++) {
+      if (buffer.get(offset + i) != hash[i]) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /** Materialises the object graph, leaf items are provided by position. */
+  static <T> MerkleElement<T> toMerkleElement(
+      ByteBuffer buffer, int base, int leaves, IntFunction<T> itemFn) {
+    if (leaves == 0) {
+      return MerkleEmpty.create();
+    }
+
+    return toMerkleElement(buffer, base, 0, 0, leaves, itemFn);
+  }
+
+  private static <T> MerkleElement<T> toMerkleElement(
+      ByteBuffer buffer, int base, int slot, int start, int size, IntFunction<T> itemFn) {
+    val hash = hashAt(buffer, base, slot);
+
+    if (size == 1) {
+      return new MerkleLeaf<>(itemFn.apply(start), hash);
+    }
+
+    val cutOff = size / 2;
+    val left = toMerkleElement(buffer, base, slot + 1, start, cutOff, itemFn);
+    val right =
+        toMerkleElement(buffer, base, slot + 2 * cutOff, start + cutOff, size - cutOff, itemFn);
+
+    return new MerkleNode<>(hash, left, right);
+  }
+
+  private static int offset(int base, int slot) {
+    return base + slot * HASH_SIZE;
+  }
+}
@@ -0,0 +1,157 @@
+package org.cardanofoundation.merkle;
+
+import io.vavr.collection.List;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import lombok.val;
+
+/**
+ * Merkle Tree storing all node hashes contiguously in a single buffer instead of an object graph.
+ * Root hash, proofs and verification are identical to {@link MerkleTree}, while a tree with <code>n
+ * </code> leaves costs one buffer of <code>(2n - 1) * 32</code> bytes. Use {@link
+ * #toMerkleElement()} to get the object graph back, e.g. for Plutus serialisation.
+ *
+ * <p>A single buffer holds at most {@value FlatLayout#MAX_LEAVES} leaves.
+ *
+ * @param <T> - user defined type backing this Merkle Tree
+ */
+public final class FlatMerkleTree<T> {
+
+  private final ByteBuffer hashes;
+
+  private final int size;
+
+  private final java.util.List<T> items;
+
+  FlatMerkleTree(ByteBuffer hashes, int size, java.util.List<T> items) {
+    this.hashes = hashes;
+    this.size = size;
+    this.items = items;
+  }
+
+  /**
+   * Create a flat Merkle Tree from a list of elements, hashes are kept on heap.
+   *
+   * @param items - original items to construct merkle list from
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return - flat Merkle Tree
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> FlatMerkleTree<T> fromList(
+      java.util.List<T> items, Function<T, byte[]> serialiserFn) {
+    return fromList(items, serialiserFn, ByteBuffer::allocate);
+  }
+
+  /**
+   * Create a flat Merkle Tree from a list of elements.
+   *
+   * @param items - original items to construct merkle list from
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @param allocator - allocates the hash buffer of a given size, e.g. <code>
+   *     ByteBuffer::allocateDirect</code> to keep hashes off-heap
+   * @return - flat Merkle Tree
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> FlatMerkleTree<T> fromList(
+      java.util.List<T> items,
+      Function<T, byte[]> serialiserFn,
+      IntFunction<ByteBuffer> allocator) {
+    val copy = Collections.unmodifiableList(new ArrayList<>(items));
+    val hashes = allocator.apply(FlatLayout.byteSize(copy.size()));
+
+    FlatLayout.build(
+        hashes, 0, copy.size(), index -> MerkleTree.leafHash(copy.get(index), serialiserFn));
+
+    return new FlatMerkleTree<>(hashes, copy.size(), copy);
+  }
+
+  /**
+   * Create a flat Merkle Tree from an existing one, reusing its hashes.
+   *
+   * @param root - Merkle Tree (root node) built by {@link MerkleTree#fromList}
+   * @return - flat Merkle Tree
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> FlatMerkleTree<T> fromMerkleElement(MerkleElement<T> root) {
+    val items = MerkleTree.toList(root).asJava();
+    val hashes = ByteBuffer.allocate(FlatLayout.byteSize(items.size()));
+
+    FlatLayout.copy(hashes, 0, root, items.size());
+
+    return new FlatMerkleTree<>(hashes, items.size(), items);
+  }
+
+  /**
+   * Returns root hash of the tree, an empty array for an empty tree (same as {@link
+   * MerkleEmpty#itemHash()}).
+   */
+  public byte[] rootHash() {
+    return size == 0 ? new byte[0] : FlatLayout.hashAt(hashes, 0, 0);
+  }
+
+  ByteBuffer hashes() {
+    return hashes;
+  }
+
+  /** Returns number of leaves. */
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Get a proof for a leaf at the given position.
+   *
+   * @param index - leaf position (zero based)
+   * @return - Merkle Proof for this particular leaf, empty when index is out of range
+   */
+  public Optional<List<ProofItem>> getProof(int index) {
+    return FlatLayout.proof(hashes, 0, size, index);
+  }
+
+  /**
+   * Get a proof based on a provided user defined item, the first matching leaf is used.
+   *
+   * @param item - user defined item to be checked
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return - Merkle Proof for this particular item
+   */
+  public Optional<List<ProofItem>> getProof(T item, Function<T, byte[]> serialiserFn) {
+    val index = FlatLayout.indexOfHash(hashes, 0, size, MerkleTree.leafHash(item, serialiserFn));
+
+    return index < 0 ? Optional.empty() : getProof(index);
+  }
+
+  /**
+   * Verifies the provided proof against root hash of this tree.
+   *
+   * @param item - item to be verified for presence
+   * @param proof - previously generated Merkle Proof
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return <code>true</code> when a proof is valid for the given item, <code>false</code>
+   *     otherwise
+   */
+  public boolean verifyProof(T item, List<ProofItem> proof, Function<T, byte[]> serialiserFn) {
+    return MerkleTree.verifyProof(rootHash(), item, proof, serialiserFn);
+  }
+
+  /**
+   * Converts this tree into the {@link MerkleElement} object graph.
+   *
+   * @return - Merkle Tree (root node), identical to the one created by {@link MerkleTree#fromList}
+   */
+  public MerkleElement<T> toMerkleElement() {
+    return FlatLayout.toMerkleElement(hashes, 0, size, items::get);
+  }
+}
@@ -0,0 +1,20 @@
+package org.cardanofoundation.merkle;
+
+/**
+ * Loads user defined items on demand for {@link LazyMerkleLeaf}s, e.g. from a database, a file or
+ * an external index. Handles are opaque to the tree, {@link MerkleTree#fromSource} uses item
+ * positions <code>0 .. size - 1</code>.
+ *
+ * @param <T> - user defined type backing this Merkle Tree
+ */
+@FunctionalInterface
+public interface ItemSource<T> {
+
+  /**
+   * Loads an item, called every time the item of a lazy leaf is requested.
+   *
+   * @param handle - handle of the item
+   * @return - user defined item
+   */
+  T load(long handle);
+}
@@ -0,0 +1,40 @@
+package org.cardanofoundation.merkle;
+
+import java.util.HexFormat;
+import lombok.Getter;
+
+/**
+ * Leaf keeping only the item hash and a handle, the item itself is loaded from an {@link
+ * ItemSource} whenever it is requested (it is not cached). Proofs only need hashes, so they never
+ * load items.
+ *
+ * @param <T> - user defined type backing this Merkle Tree
+ */
+@Getter
+public class LazyMerkleLeaf<T> extends MerkleLeaf<T> {
+
+  private final long handle;
+
+  private final ItemSource<T> source;
+
+  public LazyMerkleLeaf(long handle, byte[] itemHash, ItemSource<T> source) {
+    super(null, itemHash);
+    this.handle = handle;
+    this.source = source;
+  }
+
+  @Override
+  public T getItem() {
+    return source.load(handle);
+  }
+
+  @Override
+  public String toString() {
+    return "LazyMerkleLeaf{"
+        + "handle="
+        + handle
+        + ", itemHash=0x"
+        + HexFormat.of().formatHex(getItemHash())
+        + '}';
+  }
+}
@@ -0,0 +1,144 @@
+package org.cardanofoundation.merkle;
+
+import static org.cardanofoundation.util.Hashing.sha2_256;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.val;
+
+/**
+ * Bounded cache of leaf hashes (sha2_256 of serialised items), useful when serialisation is more
+ * expensive than hashing and the same items are used over and over (building, proving, verifying).
+ * Pass it explicitly to the overloads of {@link MerkleTree} taking a cache (<code>fromList</code>,
+ * <code>getProof</code>, <code>verifyProof</code>, <code>add</code>, <code>remove</code>, <code>
+ * applyBatch</code>), they look up the leaf hash in the cache and only call the wrapped serialiser
+ * on a miss. Least recently used entries are evicted once the cache is full.
+ *
+ * <p>The cache is deliberately not a <code>Function</code>: a serialiser returns serialised bytes,
+ * whereas the cache returns hashes, and a cache hidden behind a function (e.g. wrapped by <code>
+ * andThen</code>) could not be recognised and would silently be bypassed.
+ *
+ * <p>Entries are keyed either by item identity or by a user supplied key, which has to identify the
+ * serialised form of an item (e.g. a transaction hash). Instances are thread safe.
+ *
+ * @param <T> - user defined type backing this Merkle Tree
+ */
+public final class LeafHashCache<T> {
+
+  private final Function<T, byte[]> serialiserFn;
+
+  private final Function<T, Object> keyFn;
+
+  private final Map<Object, byte[]> hashes;
+
+  private long hits;
+
+  private long misses;
+
+  private LeafHashCache(Function<T, byte[]> serialiserFn, Function<T, Object> keyFn, int maxSize) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("Cache size must be positive.");
+    }
+
+    this.serialiserFn = serialiserFn;
+    this.keyFn = keyFn;
+    this.hashes =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Object, byte[]> eldest) {
+            return size() > maxSize;
+          }
+        };
+  }
+
+  /**
+   * Creates a cache keyed by item identity, items are retained until their entry is evicted.
+   *
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @param maxSize - maximum number of cached hashes
+   * @return - empty cache
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> LeafHashCache<T> byIdentity(Function<T, byte[]> serialiserFn, int maxSize) {
+    return new LeafHashCache<>(serialiserFn, IdentityKey::new, maxSize);
+  }
+
+  /**
+   * Creates a cache keyed by a user supplied key, items with equal keys must serialise the same.
+   *
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @param keyFn - function returning a key of an item, with proper equals and hashCode
+   * @param maxSize - maximum number of cached hashes
+   * @return - empty cache
+   * @param <T> - user defined type backing this Merkle Tree
+   * @param <K> - key type
+   */
+  public static <T, K> LeafHashCache<T> byKey(
+      Function<T, byte[]> serialiserFn, Function<T, K> keyFn, int maxSize) {
+    return new LeafHashCache<>(serialiserFn, keyFn::apply, maxSize);
+  }
+
+  /**
+   * Returns the leaf hash of an item, serialising and hashing it only when it is not cached.
+   *
+   * @param item - user defined item
+   * @return - sha2_256 of the serialised item, shared with the cache and all trees using it, so it
+   *     must not be modified
+   */
+  public byte[] leafHash(T item) {
+    val key = keyFn.apply(item);
+
+    synchronized (this) {
+      val cached = hashes.get(key);
+      if (cached != null) {
+        hits++;
+        return cached;
+      }
+      misses++;
+    }
+
+    val hash = sha2_256(serialiserFn.apply(item));
+
+    synchronized (this) {
+      hashes.put(key, hash);
+    }
+
+    return hash;
+  }
+
+  /** Returns number of cached hashes. */
+  public synchronized int size() {
+    return hashes.size();
+  }
+
+  /** Returns number of lookups answered from the cache. */
+  public synchronized long hits() {
+    return hits;
+  }
+
+  /** Returns number of lookups which had to serialise the item. */
+  public synchronized long misses() {
+    return misses;
+  }
+
+  /** Removes all cached hashes. */
+  public synchronized void clear() {
+    hashes.clear();
+  }
+
+  private record IdentityKey(Object item) {
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof IdentityKey key && key.item == item;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(item);
+    }
+  }
+}
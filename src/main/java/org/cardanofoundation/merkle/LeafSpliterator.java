@@ -0,0 +1,76 @@
+package org.cardanofoundation.merkle;
+
+import java.util.ArrayDeque;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import lombok.val;
+
+/**
+ * Spliterator over items of Merkle Tree leaves, in tree order. Pending subtrees are kept on an
+ * explicit stack (the next one first), splitting hands over the first pending subtree, or the left
+ * half of the only one. Sizes are exact as nodes know their number of leaves.
+ *
+ * @param <T> - user defined type backing this Merkle Tree
+ */
+final class LeafSpliterator<T> implements Spliterator<T> {
+
+  private final ArrayDeque<MerkleElement<T>> pending = new ArrayDeque<>();
+
+  private long remaining;
+
+  LeafSpliterator(MerkleElement<T> root) {
+    pending.push(root);
+    remaining = root.size();
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super T> action) {
+    while (!pending.isEmpty()) {
+      val element = pending.pop();
+
+      if (element instanceof MerkleLeaf<T> ml) {
+        remaining--;
+        action.accept(ml.getItem());
+        return true;
+      }
+      if (element instanceof MerkleNode<T> mn) {
+        pending.push(mn.getRight());
+        pending.push(mn.getLeft());
+      }
+    }
+
+    return false;
+  }
+
+  @Override
+  public Spliterator<T> trySplit() {
+    if (pending.size() > 1) {
+      return split(pending.pop());
+    }
+
+    if (pending.peek() instanceof MerkleNode<T> mn) {
+      pending.pop();
+      pending.push(mn.getRight());
+
+      return split(mn.getLeft());
+    }
+
+    return null;
+  }
+
+  private Spliterator<T> split(MerkleElement<T> prefix) {
+    remaining -= prefix.size();
+
+    return new LeafSpliterator<>(prefix);
+  }
+
+  @Override
+  public long estimateSize() {
+    return remaining;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | SIZED | SUBSIZED | IMMUTABLE;
+  }
+}
@@ -0,0 +1,306 @@
+package org.cardanofoundation.merkle;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import io.vavr.collection.List;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import lombok.val;
+
+/**
+ * File backed Merkle Tree keeping node hashes in a memory-mapped file, so a persisted tree can be
+ * opened without rebuilding it and proofs are served directly from the mapping. Root hash and
+ * proofs are identical to {@link MerkleTree#fromList} for the same items. Only hashes are stored,
+ * items stay with the caller.
+ *
+ * <p>File layout (big endian): magic <code>MKTR</code>, format version, number of leaves, a
+ * completion marker, followed by node hashes in the pre-order layout of {@link FlatMerkleTree}.
+ *
+ * <p>{@link #create} writes a temporary file next to the target, sets the marker once all hashes
+ * are on the storage device and only then moves it over the target atomically, so a failed or
+ * interrupted write never touches an existing tree file. The marker is cleared by the first in
+ * place update and set again by {@link #flush()} (and {@link #close()}), so a file left behind by a
+ * crash in between is rejected by {@link #open} instead of serving a root no item list matches.
+ *
+ * <p>Replacing a leaf is written in place and rehashes only its ancestors. Changing the number of
+ * leaves changes the shape of the tree and requires creating the file again. Trees opened with
+ * {@link #openReadOnly} map the file read-only and reject updates. Instances are not thread safe
+ * for updates.
+ *
+ * @param <T> - user defined type backing this Merkle Tree
+ */
+public final class MappedMerkleTree<T> implements Closeable {
+
+  static final int MAGIC = 0x4D4B5452; // "MKTR"
+
+  static final int VERSION = 1;
+
+  static final int HEADER_SIZE = 16;
+
+  static final int COMPLETE = 1;
+
+  private final FileChannel channel;
+
+  private final MappedByteBuffer buffer;
+
+  private final int size;
+
+  private final boolean writable;
+
+  /** Whether leaves were updated since the completion marker was last set. */
+  private boolean dirty;
+
+  private MappedMerkleTree(
+      FileChannel channel, MappedByteBuffer buffer, int size, boolean writable) {
+    this.channel = channel;
+    this.buffer = buffer;
+    this.size = size;
+    this.writable = writable;
+  }
+
+  /**
+   * Creates (or overwrites) a tree file from a list of elements.
+   *
+   * @param file - file to write the tree into
+   * @param items - original items to construct merkle list from
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return - opened tree
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> MappedMerkleTree<T> create(
+      Path file, java.util.List<T> items, Function<T, byte[]> serialiserFn) throws IOException {
+    return create(
+        file,
+        items.size(),
+        buffer ->
+            FlatLayout.build(
+                buffer,
+                HEADER_SIZE,
+                items.size(),
+                index -> MerkleTree.leafHash(items.get(index), serialiserFn)));
+  }
+
+  /**
+   * Creates (or overwrites) a tree file from an existing Merkle Tree, reusing its hashes.
+   *
+   * @param file - file to write the tree into
+   * @param root - Merkle Tree (root node) built by {@link MerkleTree#fromList}
+   * @return - opened tree
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> MappedMerkleTree<T> create(Path file, MerkleElement<T> root)
+      throws IOException {
+    val size = root.size();
+
+    return create(file, size, buffer -> FlatLayout.copy(buffer, HEADER_SIZE, root, size));
+  }
+
+  /**
+   * Writes header and hashes into a temporary file in the directory of <code>file</code>, the
+   * completion marker last, and moves it over <code>file</code>. On failure the channel is closed
+   * and the temporary file deleted, an existing <code>file</code> is left as it was.
+   */
+  private static <T> MappedMerkleTree<T> create(
+      Path file, int size, Consumer<MappedByteBuffer> hashWriter) throws IOException {
+    val length = HEADER_SIZE + FlatLayout.byteSize(size);
+    val directory = file.toAbsolutePath().getParent();
+    val tmp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+
+    FileChannel channel = null;
+    try {
+      channel = FileChannel.open(tmp, READ, WRITE);
+      val buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+      buffer.putInt(0, MAGIC);
+      buffer.putInt(4, VERSION);
+      buffer.putInt(8, size);
+      buffer.putInt(12, 0);
+
+      hashWriter.accept(buffer);
+      buffer.force();
+
+      buffer.putInt(12, COMPLETE);
+      buffer.force();
+
+      // the channel and mapping follow the file, it is not copied by an atomic move
+      Files.move(tmp, file, ATOMIC_MOVE, REPLACE_EXISTING);
+
+      return new MappedMerkleTree<>(channel, buffer, size, true);
+    } catch (IOException | RuntimeException e) {
+      try {
+        if (channel != null) {
+          channel.close();
+        }
+        Files.deleteIfExists(tmp);
+      } catch (IOException cleanup) {
+        e.addSuppressed(cleanup);
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Opens a previously created tree file for reading and in place updates.
+   *
+   * @param file - tree file
+   * @return - opened tree
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> MappedMerkleTree<T> open(Path file) throws IOException {
+    return open(file, true);
+  }
+
+  /**
+   * Opens a previously created tree file for reading only, e.g. on a read-only mount. {@link #set}
+   * is rejected and the file is never written.
+   *
+   * @param file - tree file
+   * @return - opened tree
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> MappedMerkleTree<T> openReadOnly(Path file) throws IOException {
+    return open(file, false);
+  }
+
+  private static <T> MappedMerkleTree<T> open(Path file, boolean writable) throws IOException {
+    val channel = writable ? FileChannel.open(file, READ, WRITE) : FileChannel.open(file, READ);
+
+    try {
+      if (channel.size() < HEADER_SIZE) {
+        throw new IOException("Not a merkle tree file: " + file);
+      }
+
+      val header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+      if (header.getInt(0) != MAGIC) {
+        throw new IOException("Not a merkle tree file: " + file);
+      }
+      if (header.getInt(4) != VERSION) {
+        throw new IOException("Unsupported merkle tree file version: " + header.getInt(4));
+      }
+
+      if (header.getInt(12) != COMPLETE) {
+        throw new IOException("Incomplete merkle tree file: " + file);
+      }
+
+      val size = header.getInt(8);
+      if (size < 0 || size > FlatLayout.MAX_LEAVES) {
+        throw new IOException("Invalid number of leaves in merkle tree file: " + size);
+      }
+      val length = HEADER_SIZE + FlatLayout.byteSize(size);
+      if (channel.size() < length) {
+        throw new IOException("Truncated merkle tree file: " + file);
+      }
+      if (channel.size() > length) {
+        throw new IOException("Number of leaves does not match merkle tree file size: " + file);
+      }
+
+      val mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+      val buffer = channel.map(mode, 0, length);
+
+      return new MappedMerkleTree<>(channel, buffer, size, writable);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns root hash of the tree, an empty array for an empty tree (same as {@link
+   * MerkleEmpty#itemHash()}).
+   */
+  public byte[] rootHash() {
+    return size == 0 ? new byte[0] : FlatLayout.hashAt(buffer, HEADER_SIZE, 0);
+  }
+
+  /** Returns number of leaves. */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Get a proof for a leaf at the given position.
+   *
+   * @param index - leaf position (zero based)
+   * @return - Merkle Proof for this particular leaf, empty when index is out of range
+   */
+  public Optional<List<ProofItem>> getProof(int index) {
+    return FlatLayout.proof(buffer, HEADER_SIZE, size, index);
+  }
+
+  /**
+   * Get a proof based on a provided user defined item, the first matching leaf is used.
+   *
+   * @param item - user defined item to be checked
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return - Merkle Proof for this particular item
+   */
+  public Optional<List<ProofItem>> getProof(T item, Function<T, byte[]> serialiserFn) {
+    val index =
+        FlatLayout.indexOfHash(buffer, HEADER_SIZE, size, MerkleTree.leafHash(item, serialiserFn));
+
+    return index < 0 ? Optional.empty() : getProof(index);
+  }
+
+  /**
+   * Replaces the item at the given position, the file is updated in place. The first update after a
+   * {@link #flush()} clears the completion marker on the storage device before any hash is written,
+   * the file cannot be opened again until the next {@link #flush()} or {@link #close()}.
+   *
+   * @param index - leaf position (zero based)
+   * @param item - new item
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @throws IllegalStateException when the tree was opened with {@link #openReadOnly}
+   */
+  public void set(int index, T item, Function<T, byte[]> serialiserFn) {
+    if (!writable) {
+      throw new IllegalStateException("Merkle tree file is opened read-only.");
+    }
+    Objects.checkIndex(index, size);
+
+    val leafHash = MerkleTree.leafHash(item, serialiserFn);
+    if (!dirty) {
+      buffer.putInt(12, 0);
+      buffer.force(12, 4);
+      dirty = true;
+    }
+
+    FlatLayout.updateLeaf(buffer, HEADER_SIZE, size, index, leafHash);
+  }
+
+  /**
+   * Forces all in place updates to be written to the storage device, then sets the completion
+   * marker again.
+   */
+  public void flush() {
+    if (!dirty) {
+      return;
+    }
+
+    buffer.force();
+    buffer.putInt(12, COMPLETE);
+    buffer.force(12, 4);
+    dirty = false;
+  }
+
+  /**
+   * Flushes and closes the underlying file. The mapping itself is released once garbage collected.
+   */
+  @Override
+  public void close() throws IOException {
+    flush();
+    channel.close();
+  }
+}
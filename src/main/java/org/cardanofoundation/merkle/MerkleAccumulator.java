@@ -0,0 +1,229 @@
+package org.cardanofoundation.merkle;
+
+import static org.cardanofoundation.util.Hashing.combineHash;
+
+import io.vavr.collection.List;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.function.Function;
+import lombok.val;
+
+/**
+ * Append-only Merkle accumulator (Merkle Mountain Range). Appended leaves are grouped into perfect
+ * subtrees of decreasing size, one per set bit of the number of leaves (the frontier of "peaks").
+ * Appending a leaf hashes at most <code>log n</code> new nodes, one per merged peak (amortised
+ * constant). Only hashes are kept, items stay with the caller.
+ *
+ * <p>The accumulator root ({@link #rootHash()}) bags the peaks from right to left: <code>
+ * combine(p0, combine(p1, ... combine(pk-1, pk)))</code>, where <code>p0</code> is the largest
+ * (leftmost) peak. It is a plain binary tree, so proofs from {@link #getProof(int)} verify with
+ * {@link MerkleTree#verifyProof} and the on-chain <code>verify_proof</code>.
+ *
+ * <p>Mapping to {@link MerkleTree#fromList}: when the number of leaves is a power of two, there is
+ * a single peak and {@link #rootHash()} is identical to the root of <code>fromList</code> for the
+ * same items. Otherwise the shapes differ (<code>fromList</code> puts the smaller half on the left,
+ * the accumulator the larger one), and {@link #canonicalRootHash()} / {@link #canonicalProof(int)}
+ * compute the <code>fromList</code> root and proofs from stored leaf hashes, without serialising
+ * items again. These are <code>O(n)</code> hashes and are cached until the next append.
+ *
+ * <p>Instances are not thread safe.
+ *
+ * @param <T> - user defined type backing this Merkle Tree
+ */
+public final class MerkleAccumulator<T> {
+
+  private final Function<T, byte[]> serialiserFn;
+
+  /** Hashes of aligned perfect subtrees with <code>2^level</code> leaves, per level. */
+  private final ArrayList<ArrayList<byte[]>> levels = new ArrayList<>();
+
+  private int size;
+
+  private byte[] rootHash;
+
+  private ByteBuffer canonical;
+
+  private MerkleAccumulator(Function<T, byte[]> serialiserFn) {
+    this.serialiserFn = serialiserFn;
+  }
+
+  /**
+   * Creates an empty accumulator.
+   *
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return - empty accumulator
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> MerkleAccumulator<T> create(Function<T, byte[]> serialiserFn) {
+    return new MerkleAccumulator<>(serialiserFn);
+  }
+
+  /**
+   * Appends an item.
+   *
+   * @param item - user defined item
+   * @return - position of the appended leaf (zero based)
+   */
+  public int append(T item) {
+    if (size == FlatLayout.MAX_LEAVES) {
+      throw new IllegalStateException("Accumulator is full.");
+    }
+
+    var hash = MerkleTree.leafHash(item, serialiserFn);
+    val index = size++;
+
+    // a new peak is merged with equally sized ones while the number of subtrees is even
+    for (int level = 0; ; level++) {
+      if (levels.size() == level) {
+        levels.add(new ArrayList<>());
+      }
+
+      val hashes = levels.get(level);
+      hashes.add(hash);
+      if (hashes.size() % 2 == 1) {
+        break;
+      }
+
+      hash = combineHash(hashes.get(hashes.size() - 2), hash);
+    }
+
+    rootHash = null;
+    canonical = null;
+
+    return index;
+  }
+
+  /** Returns number of appended leaves. */
+  public int size() {
+    return size;
+  }
+
+  /** Returns true when no leaf has been appended yet. */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns the accumulator root (peaks bagged from right to left), an empty array when empty.
+   * Equal to {@link #canonicalRootHash()} when the size is a power of two.
+   */
+  public byte[] rootHash() {
+    if (rootHash == null) {
+      rootHash = size == 0 ? new byte[0] : bag(0);
+    }
+
+    return rootHash;
+  }
+
+  /**
+   * Get a proof for a leaf at the given position against {@link #rootHash()}.
+   *
+   * @param index - leaf position (zero based)
+   * @return - Merkle Proof for this particular leaf, empty when index is out of range
+   */
+  public Optional<List<ProofItem>> getProof(int index) {
+    if (index < 0 || index >= size) {
+      return Optional.empty();
+    }
+
+    val peaks = peakLevels();
+    var peak = 0;
+    var peakStart = 0;
+    while (index >= peakStart + (1 << peaks[peak])) {
+      peakStart += 1 << peaks[peak];
+      peak++;
+    }
+
+    var proof = List.<ProofItem>empty();
+
+    // siblings within the peak, the deepest one first
+    for (int level = 0; level < peaks[peak]; level++) {
+      val position = index >> level;
+      val sibling = levels.get(level).get(position ^ 1);
+
+      proof =
+          proof.append(
+              (position & 1) == 0 ? new ProofItem.Right(sibling) : new ProofItem.Left(sibling));
+    }
+
+    // then the bagging of peaks
+    if (peak < peaks.length - 1) {
+      proof = proof.append(new ProofItem.Right(bag(peak + 1)));
+    }
+    for (int left = peak - 1; left >= 0; left--) {
+      proof = proof.append(new ProofItem.Left(peakHash(peaks[left])));
+    }
+
+    return Optional.of(proof);
+  }
+
+  /**
+   * Returns root hash of {@link MerkleTree#fromList} for the appended items, an empty array when
+   * empty.
+   */
+  public byte[] canonicalRootHash() {
+    return size == 0 ? new byte[0] : FlatLayout.hashAt(canonical(), 0, 0);
+  }
+
+  /**
+   * Get a proof for a leaf at the given position against {@link #canonicalRootHash()}, identical to
+   * the one returned by {@link MerkleTree#getProof} for a tree built by {@link
+   * MerkleTree#fromList}.
+   *
+   * @param index - leaf position (zero based)
+   * @return - Merkle Proof for this particular leaf, empty when index is out of range
+   */
+  public Optional<List<ProofItem>> canonicalProof(int index) {
+    if (index < 0 || index >= size) {
+      return Optional.empty();
+    }
+
+    return FlatLayout.proof(canonical(), 0, size, index);
+  }
+
+  private ByteBuffer canonical() {
+    if (canonical == null) {
+      val leaves = levels.isEmpty() ? new ArrayList<byte[]>() : levels.get(0);
+      val buffer = ByteBuffer.allocate(FlatLayout.byteSize(size));
+
+      FlatLayout.build(buffer, 0, size, leaves::get);
+      canonical = buffer;
+    }
+
+    return canonical;
+  }
+
+  /** Returns levels of peaks from the largest (leftmost) to the smallest. */
+  private int[] peakLevels() {
+    val peaks = new int[Integer.bitCount(size)];
+    var i = 0;
+    for (int level = 31 - Integer.numberOfLeadingZeros(size); level >= 0; level--) {
+      if ((size & (1 << level)) != 0) {
+        peaks[i++] = level;
+      }
+    }
+
+    return peaks;
+  }
+
+  /** Hash of the peak at the given level, it is always the last subtree of its level. */
+  private byte[] peakHash(int level) {
+    val hashes = levels.get(level);
+
+    return hashes.get(hashes.size() - 1);
+  }
+
+  /** Bags peaks starting from the given one (in {@link #peakLevels()} order) from right to left. */
+  private byte[] bag(int from) {
+    val peaks = peakLevels();
+
+    var hash = peakHash(peaks[peaks.length - 1]);
+    for (int i = peaks.length - 2; i >= from; i--) {
+      hash = combineHash(peakHash(peaks[i]), hash);
+    }
+
+    return hash;
+  }
+}
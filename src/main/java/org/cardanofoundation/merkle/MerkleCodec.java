@@ -0,0 +1,239 @@
+package org.cardanofoundation.merkle;
+
+import static org.cardanofoundation.merkle.FlatLayout.HASH_SIZE;
+
+import io.vavr.collection.List;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import lombok.val;
+
+/**
+ * Compact, versioned binary format for proofs and trees, for caching and network transfer (see
+ * {@link ProofItem} and {@link MerkleElement} annotations for the Plutus data encoding).
+ *
+ * <p>Every encoding starts with a format version byte and a kind byte, numbers are big endian:
+ *
+ * <ul>
+ *   <li>proof: number of steps (unsigned short), direction bitmap with one bit per step (least
+ *       significant bit first, <code>1</code> when the sibling is on the left), followed by the
+ *       32-byte sibling hashes, deepest first;
+ *   <li>tree: number of leaves (int), followed by node hashes in pre-order, the layout of {@link
+ *       FlatMerkleTree}. Items are not part of the encoding.
+ * </ul>
+ *
+ * <p>Decoding does not copy hashes: {@link #readProof} and {@link #decodeTree} return views over
+ * the given buffer, which must not be modified while they are in use. Decoding starts at the
+ * position of the buffer and moves it past the decoded value. Malformed input (including non-zero
+ * padding bits of a proof bitmap and node hashes not matching their children) is rejected with
+ * {@link IllegalArgumentException}. Leaf hashes of a decoded tree cannot be checked without the
+ * items, they are trusted as they are.
+ */
+public final class MerkleCodec {
+
+  public static final int VERSION = 1;
+
+  static final int KIND_PROOF = 1;
+
+  static final int KIND_TREE = 2;
+
+  private static final int HEADER_SIZE = 2;
+
+  /** Longest proof which can be encoded. */
+  public static final int MAX_PROOF_LENGTH = 0xFFFF;
+
+  private MerkleCodec() {}
+
+  /**
+   * Returns number of bytes taken by an encoded proof.
+   *
+   * @param length - number of proof steps
+   * @return - encoded size in bytes
+   */
+  public static int proofSize(int length) {
+    if (length < 0 || length > MAX_PROOF_LENGTH) {
+      throw new IllegalArgumentException("Unsupported proof length: " + length);
+    }
+
+    return HEADER_SIZE + 2 + (length + 7) / 8 + length * HASH_SIZE;
+  }
+
+  /**
+   * Encodes a proof.
+   *
+   * @param proof - Merkle Proof, every hash has to be 32 bytes long
+   * @return - encoded proof
+   */
+  public static byte[] encodeProof(List<ProofItem> proof) {
+    val buffer = ByteBuffer.allocate(proofSize(proof.size()));
+    encodeProof(proof, buffer);
+
+    return buffer.array();
+  }
+
+  /**
+   * Encodes a proof into a buffer at its position, the position is moved past the proof.
+   *
+   * @param proof - Merkle Proof, every hash has to be 32 bytes long
+   * @param out - buffer with at least {@link #proofSize(int)} bytes remaining
+   */
+  public static void encodeProof(List<ProofItem> proof, ByteBuffer out) {
+    val length = proof.size();
+    val start = out.position();
+    val bitmap = new byte[(length + 7) / 8];
+
+    out.put((byte) VERSION).put((byte) KIND_PROOF).putShort((short) length);
+    out.position(out.position() + bitmap.length);
+
+    var i = 0;
+    for (val item : proof) {
+      val hash = item.hash();
+      if (hash.length != HASH_SIZE) {
+        out.position(start);
+        throw new IllegalArgumentException("Proof hashes have to be " + HASH_SIZE + " bytes long.");
+      }
+      if (item instanceof ProofItem.Left) {
+        bitmap[i / 8] |= (byte) (1 << (i % 8));
+      }
+
+      out.put(hash);
+      i++;
+    }
+
+    out.put(start + HEADER_SIZE + 2, bitmap);
+  }
+
+  /**
+   * Decodes a proof, hashes are copied into {@link ProofItem}s. Use {@link #readProof} to verify
+   * without materialising the proof.
+   *
+   * @param buffer - buffer positioned at an encoded proof
+   * @return - Merkle Proof
+   */
+  public static List<ProofItem> decodeProof(ByteBuffer buffer) {
+    return readProof(buffer).toProofItems();
+  }
+
+  /**
+   * Reads a proof without copying it.
+   *
+   * @param buffer - buffer positioned at an encoded proof
+   * @return - view of the encoded proof
+   */
+  public static ProofReader readProof(ByteBuffer buffer) {
+    val start = buffer.position();
+    readHeader(buffer, KIND_PROOF, 2);
+
+    val length = Short.toUnsignedInt(buffer.getShort(start + HEADER_SIZE));
+    val size = proofSize(length);
+    if (buffer.remaining() < size) {
+      throw new IllegalArgumentException("Truncated proof.");
+    }
+
+    val bitmapStart = start + HEADER_SIZE + 2;
+    val hashesStart = bitmapStart + (length + 7) / 8;
+    if (length % 8 != 0 && (buffer.get(hashesStart - 1) & 0xff) >>> (length % 8) != 0) {
+      throw new IllegalArgumentException("Non-zero padding bits in proof bitmap.");
+    }
+    val reader =
+        new ProofReader(
+            length,
+            buffer.slice(bitmapStart, hashesStart - bitmapStart),
+            buffer.slice(hashesStart, length * HASH_SIZE));
+
+    buffer.position(start + size);
+
+    return reader;
+  }
+
+  /**
+   * Returns number of bytes taken by an encoded tree.
+   *
+   * @param leaves - number of leaves
+   * @return - encoded size in bytes
+   */
+  public static int treeSize(int leaves) {
+    return HEADER_SIZE + 4 + FlatLayout.byteSize(leaves);
+  }
+
+  /**
+   * Encodes hashes of a tree.
+   *
+   * @param root - Merkle Tree (root node) built by {@link MerkleTree#fromList}
+   * @return - encoded tree
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> byte[] encodeTree(MerkleElement<T> root) {
+    val leaves = root.size();
+    val buffer = ByteBuffer.allocate(treeSize(leaves));
+
+    buffer.put((byte) VERSION).put((byte) KIND_TREE).putInt(leaves);
+    FlatLayout.copy(buffer, HEADER_SIZE + 4, root, leaves);
+
+    return buffer.array();
+  }
+
+  /**
+   * Encodes hashes of a flat tree, they are copied as they are.
+   *
+   * @param tree - flat Merkle Tree
+   * @return - encoded tree
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> byte[] encodeTree(FlatMerkleTree<T> tree) {
+    val leaves = tree.size();
+    val buffer = ByteBuffer.allocate(treeSize(leaves));
+
+    buffer.put((byte) VERSION).put((byte) KIND_TREE).putInt(leaves);
+    buffer.put(tree.hashes().slice(0, FlatLayout.byteSize(leaves)));
+
+    return buffer.array();
+  }
+
+  /**
+   * Decodes a tree as a view over the buffer, hashes are not copied. Every node hash is checked
+   * against the hashes of its children, which takes one hash per node. Leaf hashes are trusted.
+   *
+   * <p>Items are not part of the encoding, so every item of the decoded tree is <code>null</code>:
+   * root hash, proofs and lookups by item work as they only need hashes, but {@link
+   * FlatMerkleTree#toMerkleElement()} yields leaves without items.
+   *
+   * @param buffer - buffer positioned at an encoded tree
+   * @return - flat Merkle Tree backed by the buffer
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> FlatMerkleTree<T> decodeTree(ByteBuffer buffer) {
+    val start = buffer.position();
+    readHeader(buffer, KIND_TREE, 4);
+
+    val leaves = buffer.getInt(start + HEADER_SIZE);
+    if (leaves < 0 || leaves > FlatLayout.MAX_LEAVES) {
+      throw new IllegalArgumentException("Unsupported number of leaves: " + leaves);
+    }
+
+    val size = treeSize(leaves);
+    if (buffer.remaining() < size) {
+      throw new IllegalArgumentException("Truncated tree.");
+    }
+
+    val hashes = buffer.slice(start + HEADER_SIZE + 4, FlatLayout.byteSize(leaves));
+    if (!FlatLayout.isConsistent(hashes, 0, leaves)) {
+      throw new IllegalArgumentException("Node hashes do not match their children.");
+    }
+    buffer.position(start + size);
+
+    return new FlatMerkleTree<>(hashes, leaves, Collections.nCopies(leaves, null));
+  }
+
+  private static void readHeader(ByteBuffer buffer, int kind, int fixedSize) {
+    val start = buffer.position();
+    if (buffer.remaining() < HEADER_SIZE + fixedSize) {
+      throw new IllegalArgumentException("Truncated input.");
+    }
+    if (buffer.get(start) != VERSION) {
+      throw new IllegalArgumentException("Unsupported format version: " + buffer.get(start));
+    }
+    if (buffer.get(start + 1) != kind) {
+      throw new IllegalArgumentException("Unexpected kind: " + buffer.get(start + 1));
+    }
+  }
+}
@@ -27,7 +27,7 @@ public interface MerkleElement<T> {
     }
 
     if (this instanceof MerkleLeaf<T> ml) {
-      return ml.item();
+      return ml.getItem();
     }
 
     throw new IllegalStateException("Unexpected value!");
@@ -43,7 +43,7 @@ public interface MerkleElement<T> {
     }
 
     if (this instanceof MerkleNode<T> mn) {
-      return mn.getLeft().size() + mn.getRight().size();
+      return mn.getSize();
     }
 
     throw new IllegalStateException("Unexpected value!");
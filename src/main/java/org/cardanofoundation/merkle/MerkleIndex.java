@@ -0,0 +1,294 @@
+package org.cardanofoundation.merkle;
+
+import io.vavr.collection.List;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import lombok.val;
+import org.cardanofoundation.util.HashKey;
+
+/**
+ * Side index mapping leaf hashes to leaf positions of a Merkle Tree. The index is built once per
+ * root and allows to create proofs with a single root-to-leaf walk instead of a full tree scan.
+ *
+ * <p>When the same item occurs more than once, its first (left-most) position is indexed, which
+ * matches {@link MerkleTree#getProof(MerkleElement, Object, Function)}.
+ *
+ * <p>An index is immutable. {@link MerkleTree#applyBatch(MerkleIndex, java.util.List,
+ * java.util.List, Function)} derives the index of the updated tree from the old one and the changes
+ * instead of walking all leaves again: every leaf keeps the id it got when it was indexed (its
+ * position at that time, appended leaves get the next free ids), a leaf position is its id minus
+ * the number of removed ids before it. Changed hashes are kept in a persistent map on top of the
+ * hashes indexed by {@link #create}, so both indices share everything unchanged. Once the removed
+ * ids outnumber half of the leaves, the index is built again from the tree.
+ *
+ * @param <T> - user defined type backing this Merkle Tree
+ */
+public final class MerkleIndex<T> {
+
+  private final MerkleElement<T> root;
+
+  private final int size;
+
+  /** Id of the first leaf of every hash indexed by {@link #create}, never modified. */
+  private final Map<HashKey, Integer> positions;
+
+  /** Number of leaves of hashes occurring more than once when indexed by {@link #create}. */
+  private final Map<HashKey, Integer> duplicates;
+
+  /** Hashes changed since {@link #create}, shadowing the ones above (zero count when removed). */
+  private final io.vavr.collection.HashMap<HashKey, Entry> changes;
+
+  /** Ids of removed leaves, sorted. */
+  private final int[] removed;
+
+  /** Id of the next appended leaf. */
+  private final int nextId;
+
+  private MerkleIndex(
+      MerkleElement<T> root,
+      int size,
+      Map<HashKey, Integer> positions,
+      Map<HashKey, Integer> duplicates,
+      io.vavr.collection.HashMap<HashKey, Entry> changes,
+      int[] removed,
+      int nextId) {
+    this.root = root;
+    this.size = size;
+    this.positions = positions;
+    this.duplicates = duplicates;
+    this.changes = changes;
+    this.removed = removed;
+    this.nextId = nextId;
+  }
+
+  /**
+   * Builds an index for the given Merkle Tree.
+   *
+   * @param root - Merkle Tree (root node)
+   * @return - index over all leaves of the tree
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> MerkleIndex<T> create(MerkleElement<T> root) {
+    val size = root.size();
+    val positions = new HashMap<HashKey, Integer>(Math.max(16, (int) (size / 0.75f) + 1));
+
+    val duplicates = new HashMap<HashKey, Integer>();
+
+    collect(root, 0, size, positions, duplicates);
+
+    return new MerkleIndex<>(
+        root, size, positions, duplicates, io.vavr.collection.HashMap.empty(), new int[0], size);
+  }
+
+  private static <T> void collect(
+      MerkleElement<T> element,
+      int offset,
+      int size,
+      Map<HashKey, Integer> positions,
+      Map<HashKey, Integer> duplicates) {
+    if (element instanceof MerkleLeaf<T> ml) {
+      val key = HashKey.of(ml.getItemHash());
+      if (positions.putIfAbsent(key, offset) != null) {
+        duplicates.merge(key, 2, (count, ignored) -> count + 1);
+      }
+      return;
+    }
+    if (element instanceof MerkleNode<T> mn) {
+      val leftSize = size / 2;
+      collect(mn.getLeft(), offset, leftSize, positions, duplicates);
+      collect(mn.getRight(), offset + leftSize, size - leftSize, positions, duplicates);
+    }
+  }
+
+  /**
+   * Derives the index of a tree updated by removing and appending leaves.
+   *
+   * <p>Cost: <code>O(r + k log n)</code> for <code>r</code> leaves removed so far and <code>k
+   * </code> changed leaves. Only when a removed leaf was the first of several leaves with the same
+   * hash, the next one is looked up in a walk over the new tree.
+   *
+   * @param newRoot - updated tree
+   * @param removedPositions - positions of removed leaves in the tree of this index, sorted
+   * @param removedHashes - hashes of the removed leaves, in the same order
+   * @param addedHashes - hashes of the appended leaves, in order
+   */
+  MerkleIndex<T> update(
+      MerkleElement<T> newRoot,
+      int[] removedPositions,
+      java.util.List<byte[]> removedHashes,
+      java.util.List<byte[]> addedHashes) {
+    val newSize = newRoot.size();
+    val removedIds = new int[removedPositions.length];
+    var skipped = 0;
+    for (int i = 0; i < removedPositions.length; i++) {
+      var id = removedPositions[i] + skipped;
+      while (skipped < removed.length && removed[skipped] <= id) {
+        skipped++;
+        id++;
+      }
+      removedIds[i] = id;
+    }
+
+    val newRemoved = merge(removed, removedIds);
+    if (newRemoved.length > newSize / 2) {
+      return create(newRoot);
+    }
+
+    var newChanges = changes;
+    val moved = new java.util.ArrayList<HashKey>();
+    for (int i = 0; i < removedIds.length; i++) {
+      val key = HashKey.of(removedHashes.get(i));
+      val entry = entry(key, newChanges);
+      newChanges = newChanges.put(key, new Entry(entry.id(), entry.count() - 1));
+      if (entry.id() == removedIds[i] && entry.count() > 1) {
+        moved.add(key);
+      }
+    }
+
+    for (val key : moved) {
+      val count = newChanges.get(key).get().count();
+      if (count > 0) {
+        // appended leaves come after all old ones, so the first leaf found is an old one
+        val position = firstPosition(newRoot, key.bytes(), 0, newSize);
+        newChanges = newChanges.put(key, new Entry(toId(newRemoved, position), count));
+      }
+    }
+
+    var id = nextId;
+    for (val hash : addedHashes) {
+      val key = HashKey.of(hash);
+      val entry = entry(key, newChanges);
+      val added = entry == null || entry.count() == 0;
+      newChanges = newChanges.put(key, added ? new Entry(id, 1) : entry.add());
+      id++;
+    }
+
+    return new MerkleIndex<>(newRoot, newSize, positions, duplicates, newChanges, newRemoved, id);
+  }
+
+  private Entry entry(HashKey key, io.vavr.collection.HashMap<HashKey, Entry> changes) {
+    val changed = changes.get(key);
+    if (changed.isDefined()) {
+      return changed.get();
+    }
+
+    val id = positions.get(key);
+    return id == null ? null : new Entry(id, duplicates.getOrDefault(key, 1));
+  }
+
+  private static <T> int firstPosition(
+      MerkleElement<T> element, byte[] itemHash, int offset, int size) {
+    if (element instanceof MerkleLeaf<T> ml) {
+      return Arrays.equals(ml.getItemHash(), itemHash) ? offset : -1;
+    }
+    if (element instanceof MerkleNode<T> mn) {
+      val leftSize = size / 2;
+      val left = firstPosition(mn.getLeft(), itemHash, offset, leftSize);
+
+      return left >= 0
+          ? left
+          : firstPosition(mn.getRight(), itemHash, offset + leftSize, size - leftSize);
+    }
+
+    return -1;
+  }
+
+  /** Returns id of the leaf at the given position. */
+  private static int toId(int[] removed, int position) {
+    var id = position;
+    for (int i = 0; i < removed.length && removed[i] <= id; i++) {
+      id++;
+    }
+
+    return id;
+  }
+
+  private static int[] merge(int[] a, int[] b) {
+    val merged = new int[a.length + b.length];
+    int i = 0;
+    int j = 0;
+    int k = 0;
+    while (i < a.length && j < b.length) {
+      merged[k++] = a[i] <= b[j] ? a[i++] : b[j++];
+    }
+    while (i < a.length) {
+      merged[k++] = a[i++];
+    }
+    while (j < b.length) {
+      merged[k++] = b[j++];
+    }
+
+    return merged;
+  }
+
+  public MerkleElement<T> root() {
+    return root;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Looks up position of an item in the tree.
+   *
+   * @param item - user defined item
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return - leaf position or empty when item is not part of the tree
+   */
+  public Optional<Integer> indexOf(T item, Function<T, byte[]> serialiserFn) {
+    return indexOfHash(MerkleTree.leafHash(item, serialiserFn));
+  }
+
+  /**
+   * Looks up position of a leaf with the given hash.
+   *
+   * @param itemHash - sha2_256 hash of a serialised item
+   * @return - leaf position or empty when there is no such leaf
+   */
+  public Optional<Integer> indexOfHash(byte[] itemHash) {
+    val entry = entry(HashKey.of(itemHash), changes);
+    if (entry == null || entry.count() == 0) {
+      return Optional.empty();
+    }
+
+    // ids are distinct from removed ones, so the insertion point counts the removed ids before it
+    val before = -Arrays.binarySearch(removed, entry.id()) - 1;
+
+    return Optional.of(entry.id() - before);
+  }
+
+  /**
+   * Get a proof for an item using the index, costs a single root-to-leaf walk.
+   *
+   * @param item - user defined item to be checked
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return - Merkle Proof for this particular item
+   */
+  public Optional<List<ProofItem>> getProof(T item, Function<T, byte[]> serialiserFn) {
+    return indexOf(item, serialiserFn).flatMap(this::getProof);
+  }
+
+  /**
+   * Get a proof for a leaf at the given position.
+   *
+   * @param index - leaf position (zero based)
+   * @return - Merkle Proof for this particular leaf, empty when index is out of range
+   */
+  public Optional<List<ProofItem>> getProof(int index) {
+    return MerkleTree.getProof(root, index);
+  }
+
+  /** Id of the first leaf with a hash and number of leaves with that hash. */
+  private record Entry(int id, int count) {
+
+    Entry add() {
+      return new Entry(id, count + 1);
+    }
+  }
+}
@@ -3,7 +3,6 @@ package org.cardanofoundation.merkle;
 import com.bloxbean.cardano.client.plutus.annotation.Constr;
 import com.bloxbean.cardano.client.plutus.annotation.PlutusField;
 import java.util.HexFormat;
-import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
@@ -11,7 +10,6 @@ import lombok.Setter;
 @EqualsAndHashCode
 @Getter
 @Setter
-@AllArgsConstructor
 @Constr(alternative = 2)
 public class MerkleNode<T> implements MerkleElement<T> {
 
@@ -21,6 +19,23 @@ public class MerkleNode<T> implements MerkleElement<T> {
 
   @PlutusField private final MerkleElement<T> right;
 
+  /**
+   * Number of leaves below this node, computed once on construction (not part of on-chain data).
+   */
+  private final int size;
+
+  public MerkleNode(byte[] hash, MerkleElement<T> left, MerkleElement<T> right) {
+    this.hash = hash;
+    this.left = left;
+    this.right = right;
+    this.size = left.size() + right.size();
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
   @Override
   public String toString() {
     return "MerkleNode{" + "root_hash=0x" + HexFormat.of().formatHex(hash) + '}';
@@ -0,0 +1,232 @@
+package org.cardanofoundation.merkle;
+
+import static org.cardanofoundation.util.Hashing.combineHash;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import lombok.val;
+import org.cardanofoundation.util.HashKey;
+
+/**
+ * Content addressed store of Merkle Tree nodes (hash-consing). Nodes and leaves are interned by
+ * their hash, so every distinct subtree exists once in memory, no matter how many tree versions
+ * contain it. Pass the store to {@link MerkleTree#fromList(io.vavr.collection.List,
+ * java.util.function.Function, MerkleNodeStore)}, {@link MerkleTree#add(MerkleElement, Object,
+ * java.util.function.Function, MerkleNodeStore)}, {@link MerkleTree#remove(MerkleElement, Object,
+ * java.util.function.Function, MerkleNodeStore)} or {@link MerkleTree#applyBatch(MerkleElement,
+ * java.util.List, java.util.List, java.util.function.Function, MerkleNodeStore)}: subtrees already
+ * present in the store are reused by reference, so memory grows with the change set of a version
+ * rather than with its size.
+ *
+ * <p>Versions to keep are registered with {@link #commit(long, MerkleElement)} and dropped with
+ * {@link #release(long)} or {@link #releaseBefore(long)}. {@link #prune()} then removes nodes not
+ * reachable from any retained version (mark and sweep, every shared subtree is visited once), so
+ * they can be garbage collected once the caller drops its references. Uncommitted trees built with
+ * the store are removed by the next prune as well, commit them first to keep them interned.
+ *
+ * <p>Elements are keyed by hash and number of leaves, so a leaf never stands in for a node with the
+ * same hash or vice versa. Leaves are interned by hash only, so items which serialise the same
+ * share one leaf. Instances are thread safe.
+ *
+ * @param <T> - user defined type backing this Merkle Tree
+ */
+public final class MerkleNodeStore<T> {
+
+  private final Map<ElementKey, MerkleElement<T>> elements = new HashMap<>();
+
+  private final NavigableMap<Long, MerkleElement<T>> versions = new TreeMap<>();
+
+  private MerkleNodeStore() {}
+
+  /**
+   * Creates an empty store.
+   *
+   * @return - empty store
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> MerkleNodeStore<T> create() {
+    return new MerkleNodeStore<>();
+  }
+
+  /** Returns interned leaf with the given hash, creating it when there is none. */
+  synchronized MerkleLeaf<T> leaf(T item, byte[] itemHash) {
+    val key = new ElementKey(HashKey.of(itemHash), 1);
+    if (elements.get(key) instanceof MerkleLeaf<T> existing) {
+      return existing;
+    }
+
+    val leaf = new MerkleLeaf<>(item, itemHash);
+    elements.put(key, leaf);
+
+    return leaf;
+  }
+
+  /** Returns interned node combining the given subtrees, creating it when there is none. */
+  synchronized MerkleNode<T> node(MerkleElement<T> left, MerkleElement<T> right) {
+    val hash = combineHash(left.itemHash(), right.itemHash());
+    val key = new ElementKey(HashKey.of(hash), left.size() + right.size());
+    if (elements.get(key) instanceof MerkleNode<T> existing) {
+      return existing;
+    }
+
+    val node = new MerkleNode<>(hash, left, right);
+    elements.put(key, node);
+
+    return node;
+  }
+
+  /**
+   * Interns a tree built without this store (e.g. by {@link MerkleTree#fromListParallel} or decoded
+   * from bytes). Subtrees already present in the store are replaced by the stored ones, without
+   * visiting them.
+   *
+   * @param root - Merkle Tree root
+   * @return - equivalent tree made of interned nodes
+   */
+  public synchronized MerkleElement<T> intern(MerkleElement<T> root) {
+    // post-order walk: a node is pushed again as expanded above its children, their interned
+    // replacements are collected on the results stack
+    val pending = new ArrayDeque<InternFrame<T>>();
+    val results = new ArrayDeque<MerkleElement<T>>();
+    pending.push(new InternFrame<>(root, false));
+
+    while (!pending.isEmpty()) {
+      val frame = pending.pop();
+      val element = frame.element();
+
+      if (frame.expanded()) {
+        val mn = (MerkleNode<T>) element;
+        val right = results.pop();
+        val left = results.pop();
+        val node =
+            left == mn.getLeft() && right == mn.getRight()
+                ? mn
+                : new MerkleNode<>(mn.getHash(), left, right);
+        elements.put(ElementKey.of(node), node);
+        results.push(node);
+        continue;
+      }
+      if (element instanceof MerkleEmpty<T>) {
+        results.push(element);
+        continue;
+      }
+
+      val existing = elements.get(ElementKey.of(element));
+      if (existing != null) {
+        results.push(existing);
+      } else if (element instanceof MerkleNode<T> mn) {
+        pending.push(new InternFrame<>(mn, true));
+        pending.push(new InternFrame<>(mn.getRight(), false));
+        pending.push(new InternFrame<>(mn.getLeft(), false));
+      } else {
+        elements.put(ElementKey.of(element), element);
+        results.push(element);
+      }
+    }
+
+    return results.pop();
+  }
+
+  /**
+   * Retains a tree version until it is released, the tree is interned first.
+   *
+   * @param version - version number (e.g. block height), replaces an earlier commit of it
+   * @param root - Merkle Tree root of the version
+   * @return - interned root of the version
+   */
+  public synchronized MerkleElement<T> commit(long version, MerkleElement<T> root) {
+    val interned = intern(root);
+    versions.put(version, interned);
+
+    return interned;
+  }
+
+  /**
+   * Returns root of a retained version.
+   *
+   * @param version - version number
+   * @return - root of the version, empty when it is not retained
+   */
+  public synchronized Optional<MerkleElement<T>> root(long version) {
+    return Optional.ofNullable(versions.get(version));
+  }
+
+  /** Returns numbers of retained versions in ascending order. */
+  public synchronized SortedSet<Long> versions() {
+    return new TreeSet<>(versions.keySet());
+  }
+
+  /**
+   * Stops retaining a version, its nodes are removed by the next {@link #prune()} unless shared
+   * with another retained version.
+   *
+   * @param version - version number
+   * @return - true when the version was retained
+   */
+  public synchronized boolean release(long version) {
+    return versions.remove(version) != null;
+  }
+
+  /**
+   * Stops retaining all versions older than the given one.
+   *
+   * @param version - oldest version to keep
+   * @return - number of released versions
+   */
+  public synchronized int releaseBefore(long version) {
+    val older = versions.headMap(version, false);
+    val released = older.size();
+    older.clear();
+
+    return released;
+  }
+
+  /**
+   * Removes nodes not reachable from any retained version. Takes time proportional to the number of
+   * distinct nodes of retained versions.
+   *
+   * @return - number of removed nodes and leaves
+   */
+  public synchronized int prune() {
+    val marked = new HashSet<ElementKey>();
+    val pending = new ArrayDeque<MerkleElement<T>>(versions.values());
+
+    while (!pending.isEmpty()) {
+      val element = pending.pop();
+      if (element instanceof MerkleEmpty<T> || !marked.add(ElementKey.of(element))) {
+        continue;
+      }
+      if (element instanceof MerkleNode<T> mn) {
+        pending.push(mn.getRight());
+        pending.push(mn.getLeft());
+      }
+    }
+
+    val before = elements.size();
+    elements.keySet().retainAll(marked);
+
+    return before - elements.size();
+  }
+
+  /** Returns number of interned nodes and leaves. */
+  public synchronized int size() {
+    return elements.size();
+  }
+
+  /** Hash and number of leaves of an element, separating leaves from nodes. */
+  private record ElementKey(HashKey hash, int size) {
+
+    static ElementKey of(MerkleElement<?> element) {
+      return new ElementKey(HashKey.of(element.itemHash()), element.size());
+    }
+  }
+
+  private record InternFrame<T>(MerkleElement<T> element, boolean expanded) {}
+}
@@ -2,14 +2,26 @@ package org.cardanofoundation.merkle;
 
 import static org.cardanofoundation.util.Hashing.combineHash;
 import static org.cardanofoundation.util.Hashing.sha2_256;
-import static org.cardanofoundation.util.Optionals.findFirst;
 
 import io.vavr.collection.List;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import lombok.val;
-import org.cardanofoundation.util.Hashing;
+import org.cardanofoundation.util.HashKey;
 
 /**
  * Merkle Tree implementation using sha2_256 hashing function. The unique thing about this
@@ -19,6 +31,9 @@ import org.cardanofoundation.util.Hashing;
  */
 public class MerkleTree<T> {
 
+  /** Default number of leaves below which parallel construction continues sequentially. */
+  public static final int DEFAULT_SEQUENTIAL_THRESHOLD = 4096;
+
   /**
    * Checks whether given merkle tree is empty or not
    *
@@ -30,6 +45,31 @@ public class MerkleTree<T> {
     return root instanceof MerkleEmpty;
   }
 
+  /** Returns sha2_256 of the serialised item, the returned array is owned by the caller. */
+  static <T> byte[] leafHash(T item, Function<T, byte[]> serialiserFn) {
+    return sha2_256(serialiserFn.apply(item));
+  }
+
+  /** Returns a function computing leaf hashes by serialising and hashing items. */
+  private static <T> Function<T, byte[]> leafHashFn(Function<T, byte[]> serialiserFn) {
+    return item -> leafHash(item, serialiserFn);
+  }
+
+  /** Creates a leaf, interned in the store unless it is null. */
+  static <T> MerkleLeaf<T> leaf(T item, byte[] itemHash, MerkleNodeStore<T> store) {
+    return store == null ? new MerkleLeaf<>(item, itemHash) : store.leaf(item, itemHash);
+  }
+
+  /** Creates a node combining two subtrees, interned in the store unless it is null. */
+  static <T> MerkleNode<T> node(
+      MerkleElement<T> left, MerkleElement<T> right, MerkleNodeStore<T> store) {
+    if (store != null) {
+      return store.node(left, right);
+    }
+
+    return new MerkleNode<>(combineHash(left.itemHash(), right.itemHash()), left, right);
+  }
+
   /**
    * Create a Merkle Tree from a list of elements (using vavr list).
    *
@@ -40,7 +80,23 @@ public class MerkleTree<T> {
    * @param <T> - user defined type backing this Merkle Tree
    */
   public static <T> MerkleElement<T> fromList(List<T> items, Function<T, byte[]> serialiserFn) {
-    return doFromList(items, serialiserFn, items.size());
+    return doFromList(items, leafHashFn(serialiserFn), items.size(), null);
+  }
+
+  /**
+   * Create a Merkle Tree from a list of elements (using vavr list), interning nodes in the store.
+   * Subtrees already present in the store (e.g. from an earlier version) are reused by reference.
+   *
+   * @param items - original items to construct merkle list from
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @param store - node store to intern nodes in
+   * @return - Merkle Tree
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> MerkleElement<T> fromList(
+      List<T> items, Function<T, byte[]> serialiserFn, MerkleNodeStore<T> store) {
+    return doFromList(items, leafHashFn(serialiserFn), items.size(), store);
   }
 
   /**
@@ -55,28 +111,167 @@ public class MerkleTree<T> {
   public static <T> MerkleElement<T> fromList(
       java.util.List<T> items, Function<T, byte[]> serialiserFn) {
 
-    return doFromList(List.ofAll(items), serialiserFn, items.size());
+    return doFromList(List.ofAll(items), leafHashFn(serialiserFn), items.size(), null);
+  }
+
+  /**
+   * Create a Merkle Tree from a list of elements (using java.util list), interning nodes in the
+   * store. Subtrees already present in the store (e.g. from an earlier version) are reused by
+   * reference.
+   *
+   * @param items - original items to construct merkle list from
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @param store - node store to intern nodes in
+   * @return - Merkle Tree
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> MerkleElement<T> fromList(
+      java.util.List<T> items, Function<T, byte[]> serialiserFn, MerkleNodeStore<T> store) {
+    return doFromList(List.ofAll(items), leafHashFn(serialiserFn), items.size(), store);
+  }
+
+  /**
+   * Create a Merkle Tree from a list of elements (using vavr list), taking leaf hashes from the
+   * cache and serialising only items missing from it.
+   *
+   * @param items - original items to construct merkle list from
+   * @param cache - leaf hash cache wrapping the serialiser of items
+   * @return - Merkle Tree
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> MerkleElement<T> fromList(List<T> items, LeafHashCache<T> cache) {
+    return doFromList(items, cache::leafHash, items.size(), null);
+  }
+
+  /**
+   * Create a Merkle Tree from a list of elements (using java.util list), taking leaf hashes from
+   * the cache and serialising only items missing from it.
+   *
+   * @param items - original items to construct merkle list from
+   * @param cache - leaf hash cache wrapping the serialiser of items
+   * @return - Merkle Tree
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> MerkleElement<T> fromList(java.util.List<T> items, LeafHashCache<T> cache) {
+    return doFromList(List.ofAll(items), cache::leafHash, items.size(), null);
+  }
+
+  /**
+   * Create a Merkle Tree from a list of elements (using vavr list), serialising, hashing and
+   * combining subtrees in parallel on the common {@link ForkJoinPool}. Resulting tree is identical
+   * to the one created by {@link #fromList(List, Function)}.
+   *
+   * @param items - original items to construct merkle list from
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing), must be safe to call from multiple threads
+   * @return - Merkle Tree
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> MerkleElement<T> fromListParallel(
+      List<T> items, Function<T, byte[]> serialiserFn) {
+    return fromListParallel(items.toJavaList(), serialiserFn);
+  }
+
+  /**
+   * Create a Merkle Tree from a list of elements (using java.util list), serialising, hashing and
+   * combining subtrees in parallel on the common {@link ForkJoinPool}. Resulting tree is identical
+   * to the one created by {@link #fromList(java.util.List, Function)}.
+   *
+   * @param items - original items to construct merkle list from
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing), must be safe to call from multiple threads
+   * @return - Merkle Tree
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> MerkleElement<T> fromListParallel(
+      java.util.List<T> items, Function<T, byte[]> serialiserFn) {
+    return fromListParallel(
+        items, serialiserFn, DEFAULT_SEQUENTIAL_THRESHOLD, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Create a Merkle Tree from a list of elements (using java.util list), serialising, hashing and
+   * combining subtrees in parallel on the given {@link ForkJoinPool}. Resulting tree is identical
+   * to the one created by {@link #fromList(java.util.List, Function)}.
+   *
+   * @param items - original items to construct merkle list from
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing), must be safe to call from multiple threads
+   * @param sequentialThreshold - subtrees with at most this many leaves are built on a single
+   *     thread
+   * @param pool - pool to run the construction in
+   * @return - Merkle Tree
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> MerkleElement<T> fromListParallel(
+      java.util.List<T> items,
+      Function<T, byte[]> serialiserFn,
+      int sequentialThreshold,
+      ForkJoinPool pool) {
+    if (sequentialThreshold < 1) {
+      throw new IllegalArgumentException("Sequential threshold must be positive.");
+    }
+
+    val indexed = items instanceof RandomAccess ? items : new ArrayList<>(items);
+
+    return pool.invoke(
+        new MerkleTreeBuildTask<>(indexed, serialiserFn, 0, indexed.size(), sequentialThreshold));
+  }
+
+  /**
+   * Create a Merkle Tree whose leaves keep only item hashes and handles, items are loaded from the
+   * source on demand (see {@link LazyMerkleLeaf}). Every item is loaded once for hashing during
+   * construction. Resulting tree has the same hashes as {@link #fromList} for the same items.
+   *
+   * @param source - source of items, items are requested by their position
+   * @param size - number of items
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return - Merkle Tree
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> MerkleElement<T> fromSource(
+      ItemSource<T> source, int size, Function<T, byte[]> serialiserFn) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Size must not be negative.");
+    }
+
+    return doFromSource(source, serialiserFn, 0, size);
+  }
+
+  private static <T> MerkleElement<T> doFromSource(
+      ItemSource<T> source, Function<T, byte[]> serialiserFn, int start, int size) {
+    if (size == 0) {
+      return MerkleEmpty.create();
+    }
+    if (size == 1) {
+      return new LazyMerkleLeaf<>(start, leafHash(source.load(start), serialiserFn), source);
+    }
+
+    val cutOff = size / 2;
+    val left = doFromSource(source, serialiserFn, start, cutOff);
+    val right = doFromSource(source, serialiserFn, start + cutOff, size - cutOff);
+
+    return new MerkleNode<>(combineHash(left.itemHash(), right.itemHash()), left, right);
   }
 
   private static <T> MerkleElement<T> doFromList(
-      List<T> items, Function<T, byte[]> serialiserFn, int len) {
+      List<T> items, Function<T, byte[]> leafHashFn, int len, MerkleNodeStore<T> store) {
     if (items.isEmpty()) {
       return MerkleEmpty.create();
     }
     if (items.size() == 1) {
       val item = items.head();
-      val serialised = serialiserFn.apply(item);
-
-      return new MerkleLeaf<T>(item, sha2_256(serialised));
+      return leaf(item, leafHashFn.apply(item), store);
     }
 
     val cutOff = len / 2;
-    val left = doFromList(items.subSequence(0, cutOff), serialiserFn, cutOff);
-    val right = doFromList(items.subSequence(cutOff, items.size()), serialiserFn, (len - cutOff));
-
-    val hash = Hashing.combineHash(left.itemHash(), right.itemHash());
+    val left = doFromList(items.subSequence(0, cutOff), leafHashFn, cutOff, store);
+    val right =
+        doFromList(items.subSequence(cutOff, items.size()), leafHashFn, (len - cutOff), store);
 
-    return new MerkleNode<T>(hash, left, right);
+    return node(left, right, store);
   }
 
   /**
@@ -91,35 +286,374 @@ public class MerkleTree<T> {
    */
   public static <T> Optional<List<ProofItem>> getProof(
       MerkleElement<T> root, T item, Function<T, byte[]> serialiserFn) {
-    return doGetProof(root, sha2_256(serialiserFn.apply(item)), List.empty());
+    return doGetProof(root, leafHash(item, serialiserFn), List.empty());
+  }
+
+  /**
+   * Get a proof for this Merkle Tree based on a provided user defined item, taking its leaf hash
+   * from the cache.
+   *
+   * @param root - Merkle Tree (root node)
+   * @param item - user defined item to be checked
+   * @param cache - leaf hash cache wrapping the serialiser of items
+   * @return - Merkle Proof for this particular item
+   * @param <T> - user defined type backing this Merkle Proof
+   */
+  public static <T> Optional<List<ProofItem>> getProof(
+      MerkleElement<T> root, T item, LeafHashCache<T> cache) {
+    return doGetProof(root, cache.leafHash(item), List.empty());
   }
 
   private static <T> Optional<List<ProofItem>> doGetProof(
       MerkleElement<T> root, byte[] itemHash, List<ProofItem> proof) {
-    if (root.isEmpty()) {
+    // depth-first, left to right, with an explicit stack so that deep trees can not overflow
+    val stack = new ArrayDeque<ProofFrame<T>>();
+    stack.push(new ProofFrame<>(root, proof));
+
+    while (!stack.isEmpty()) {
+      val frame = stack.pop();
+
+      if (frame.element() instanceof MerkleLeaf<T> ml) {
+        if (Arrays.equals(ml.getItemHash(), itemHash)) {
+          return Optional.of(frame.proof());
+        }
+      } else if (frame.element() instanceof MerkleNode<T> mn) {
+        stack.push(
+            new ProofFrame<>(
+                mn.getRight(), frame.proof().prepend(new ProofItem.Left(mn.getLeft().itemHash()))));
+        stack.push(
+            new ProofFrame<>(
+                mn.getLeft(),
+                frame.proof().prepend(new ProofItem.Right(mn.getRight().itemHash()))));
+      }
+    }
+
+    return Optional.empty();
+  }
+
+  private record ProofFrame<T>(MerkleElement<T> element, List<ProofItem> proof) {}
+
+  /**
+   * Get proofs for many items at once. The tree is traversed only once and proofs share the sibling
+   * hashes (and list cells) of their common path towards the root.
+   *
+   * @param root - Merkle Tree (root node)
+   * @param items - user defined items to be checked
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return - Merkle Proofs for the items which are part of the tree, in tree order
+   * @param <T> - user defined type backing this Merkle Proof
+   */
+  public static <T> Map<T, List<ProofItem>> getProofs(
+      MerkleElement<T> root, Collection<T> items, Function<T, byte[]> serialiserFn) {
+    val wanted = new HashMap<HashKey, java.util.List<T>>();
+    for (val item : items) {
+      wanted
+          .computeIfAbsent(HashKey.of(leafHash(item, serialiserFn)), k -> new ArrayList<>(1))
+          .add(item);
+    }
+
+    val proofs = new LinkedHashMap<T, List<ProofItem>>();
+    doGetProofs(root, wanted, List.empty(), proofs);
+
+    return proofs;
+  }
+
+  private static <T> void doGetProofs(
+      MerkleElement<T> element,
+      Map<HashKey, java.util.List<T>> wanted,
+      List<ProofItem> proof,
+      Map<T, List<ProofItem>> proofs) {
+    if (wanted.isEmpty()) {
+      return;
+    }
+
+    if (element instanceof MerkleLeaf<T> ml) {
+      val found = wanted.remove(HashKey.of(ml.getItemHash()));
+      if (found != null) {
+        found.forEach(item -> proofs.put(item, proof));
+      }
+      return;
+    }
+
+    if (element instanceof MerkleNode<T> mn) {
+      doGetProofs(
+          mn.getLeft(),
+          wanted,
+          proof.prepend(new ProofItem.Right(mn.getRight().itemHash())),
+          proofs);
+      doGetProofs(
+          mn.getRight(),
+          wanted,
+          proof.prepend(new ProofItem.Left(mn.getLeft().itemHash())),
+          proofs);
+    }
+  }
+
+  /**
+   * Get a proof for a leaf at the given position, walks a single root-to-leaf path. Use {@link
+   * MerkleIndex} to resolve positions of items without scanning the tree.
+   *
+   * @param root - Merkle Tree (root node)
+   * @param index - leaf position (zero based)
+   * @return - Merkle Proof for this particular leaf, empty when index is out of range
+   * @param <T> - user defined type backing this Merkle Proof
+   */
+  public static <T> Optional<List<ProofItem>> getProof(MerkleElement<T> root, int index) {
+    if (index < 0 || index >= root.size()) {
+      return Optional.empty();
+    }
+
+    var element = root;
+    var proof = List.<ProofItem>empty();
+
+    while (element instanceof MerkleNode<T> mn) {
+      val leftSize = mn.getLeft().size();
+
+      if (index < leftSize) {
+        proof = proof.prepend(new ProofItem.Right(mn.getRight().itemHash()));
+        element = mn.getLeft();
+      } else {
+        proof = proof.prepend(new ProofItem.Left(mn.getLeft().itemHash()));
+        element = mn.getRight();
+        index -= leftSize;
+      }
+    }
+
+    return element instanceof MerkleLeaf<T> ? Optional.of(proof) : Optional.empty();
+  }
+
+  /**
+   * Get a leaf at the given position, walks a single root-to-leaf path using subtree sizes cached
+   * in nodes.
+   *
+   * @param root - Merkle Tree (root node)
+   * @param index - leaf position (zero based)
+   * @return - leaf at this position, empty when index is out of range
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> Optional<MerkleLeaf<T>> getLeaf(MerkleElement<T> root, int index) {
+    if (index < 0 || index >= root.size()) {
       return Optional.empty();
     }
 
-    if (root instanceof MerkleLeaf<T> ml) {
-      if (Arrays.equals(ml.getItemHash(), itemHash)) {
-        return Optional.of(proof);
+    var element = root;
+    while (element instanceof MerkleNode<T> mn) {
+      val leftSize = mn.getLeft().size();
+
+      if (index < leftSize) {
+        element = mn.getLeft();
+      } else {
+        element = mn.getRight();
+        index -= leftSize;
       }
+    }
+
+    return element instanceof MerkleLeaf<T> ml ? Optional.of(ml) : Optional.empty();
+  }
+
+  /**
+   * Returns items at positions <code>from</code> (inclusive) to <code>to</code> (exclusive), only
+   * subtrees overlapping the range are visited.
+   *
+   * @param root - Merkle Tree (root node)
+   * @param from - first position (zero based)
+   * @param to - position after the last one
+   * @return - items in tree order
+   * @param <T> - user defined type backing this Merkle Tree
+   * @throws IndexOutOfBoundsException when the range is not within the tree
+   */
+  public static <T> List<T> range(MerkleElement<T> root, int from, int to) {
+    if (from < 0 || to > root.size() || from > to) {
+      throw new IndexOutOfBoundsException(
+          "Range [" + from + ", " + to + ") out of bounds for size " + root.size());
+    }
+
+    val leaves = new ArrayList<MerkleLeaf<T>>(to - from);
+    doRange(root, from, to, leaves);
+
+    return List.ofAll(leaves).map(MerkleLeaf::getItem);
+  }
+
+  private static <T> void doRange(
+      MerkleElement<T> element, int from, int to, java.util.List<MerkleLeaf<T>> leaves) {
+    if (from >= to) {
+      return;
+    }
+    if (element instanceof MerkleLeaf<T> ml) {
+      leaves.add(ml);
+      return;
+    }
+    if (element instanceof MerkleNode<T> mn) {
+      val leftSize = mn.getLeft().size();
+
+      doRange(mn.getLeft(), from, Math.min(to, leftSize), leaves);
+      doRange(mn.getRight(), Math.max(from, leftSize) - leftSize, to - leftSize, leaves);
+    }
+  }
+
+  /**
+   * Returns leaves which differ between two trees, compared position by position. Both trees are
+   * walked together and subtrees covering the same positions with the same hash are skipped, so for
+   * trees of the same size the cost is proportional to the number of differences (times the depth).
+   * Positions present in one tree only are reported as well, with the missing side being <code>null
+   * </code>.
+   *
+   * <p>Trees of different sizes are split at different positions, so fewer subtrees line up and
+   * more nodes are visited, but the result is the same.
+   *
+   * @param from - Merkle Tree (root node) of the first version
+   * @param to - Merkle Tree (root node) of the second version
+   * @return - differences ordered by position
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> List<Difference<T>> diff(MerkleElement<T> from, MerkleElement<T> to) {
+    val differences = new ArrayList<Difference<T>>();
+    val fromSize = from.size();
+    val toSize = to.size();
+    val common = Math.min(fromSize, toSize);
+
+    if (common > 0) {
+      doDiff(from, 0, to, 0, 0, common, differences);
+    }
+
+    val extra = new ArrayList<MerkleLeaf<T>>();
+    if (fromSize > common) {
+      doRange(from, common, fromSize, extra);
+    } else {
+      doRange(to, common, toSize, extra);
+    }
+    for (int i = 0; i < extra.size(); i++) {
+      val leaf = extra.get(i);
+      differences.add(
+          fromSize > common
+              ? new Difference<>(common + i, leaf, null)
+              : new Difference<>(common + i, null, leaf));
+    }
+
+    return List.ofAll(differences);
+  }
+
+  /** Compares positions [lo, hi), which are covered by both elements. */
+  private static <T> void doDiff(
+      MerkleElement<T> a,
+      int aStart,
+      MerkleElement<T> b,
+      int bStart,
+      int lo,
+      int hi,
+      java.util.List<Difference<T>> differences) {
+    if (lo >= hi) {
+      return;
+    }
+
+    val aSize = a.size();
+    val bSize = b.size();
+    if (aStart == bStart && aSize == bSize && Arrays.equals(a.itemHash(), b.itemHash())) {
+      return;
+    }
 
+    if (a instanceof MerkleLeaf<T> aLeaf && b instanceof MerkleLeaf<T> bLeaf) {
+      differences.add(new Difference<>(lo, aLeaf, bLeaf));
+      return;
+    }
+
+    // split the larger of the two subtrees
+    if (a instanceof MerkleNode<T> an && (aSize >= bSize || !(b instanceof MerkleNode<T>))) {
+      val middle = aStart + an.getLeft().size();
+
+      doDiff(an.getLeft(), aStart, b, bStart, lo, Math.min(hi, middle), differences);
+      doDiff(an.getRight(), middle, b, bStart, Math.max(lo, middle), hi, differences);
+    } else if (b instanceof MerkleNode<T> bn) {
+      val middle = bStart + bn.getLeft().size();
+
+      doDiff(a, aStart, bn.getLeft(), bStart, lo, Math.min(hi, middle), differences);
+      doDiff(a, aStart, bn.getRight(), middle, Math.max(lo, middle), hi, differences);
+    }
+  }
+
+  /**
+   * Get a single compact proof for many items of the same tree, see {@link MultiProof}. Each
+   * sibling hash needed by any of the items is included only once, so the proof is smaller and
+   * cheaper to verify than separate proofs for every item.
+   *
+   * @param root - Merkle Tree (root node)
+   * @param items - user defined items to be proven
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return - multiproof for all the items, empty when any of them is not part of the tree
+   * @param <T> - user defined type backing this Merkle Proof
+   */
+  public static <T> Optional<MultiProof> getMultiProof(
+      MerkleElement<T> root, java.util.List<T> items, Function<T, byte[]> serialiserFn) {
+    if (items.isEmpty()) {
+      return Optional.empty();
+    }
+
+    val itemHashes = List.ofAll(items).map(item -> HashKey.of(leafHash(item, serialiserFn)));
+    val size = root.size();
+    val positions = new HashMap<HashKey, Integer>();
+    itemHashes.forEach(hash -> positions.put(hash, -1));
+
+    doGetPositions(root, 0, size, positions, positions.size());
+
+    val indices = itemHashes.map(positions::get);
+    if (indices.contains(-1)) {
       return Optional.empty();
     }
 
-    if (root instanceof MerkleNode<T> mn) {
-      val goLeft =
-          doGetProof(
-              mn.getLeft(), itemHash, proof.prepend(new ProofItem.Right(mn.getRight().itemHash())));
-      val goRight =
-          doGetProof(
-              mn.getRight(), itemHash, proof.prepend(new ProofItem.Left(mn.getLeft().itemHash())));
+    return Optional.of(MultiProof.create(root, size, indices));
+  }
+
+  /** Fills in positions of leaves still marked as -1, returns how many are still missing. */
+  private static <T> int doGetPositions(
+      MerkleElement<T> element,
+      int offset,
+      int size,
+      Map<HashKey, Integer> positions,
+      int missing) {
+    if (missing == 0) {
+      return 0;
+    }
+
+    if (element instanceof MerkleLeaf<T> ml) {
+      val key = HashKey.of(ml.getItemHash());
+      if (Integer.valueOf(-1).equals(positions.get(key))) {
+        positions.put(key, offset);
+        return missing - 1;
+      }
+      return missing;
+    }
+
+    if (element instanceof MerkleNode<T> mn) {
+      val cutOff = size / 2;
+      val stillMissing = doGetPositions(mn.getLeft(), offset, cutOff, positions, missing);
 
-      return findFirst(List.of(goLeft, goRight));
+      return doGetPositions(mn.getRight(), offset + cutOff, size - cutOff, positions, stillMissing);
     }
 
-    throw new IllegalStateException("Unexpected value.");
+    return missing;
+  }
+
+  /**
+   * Verifies a multiproof against root hash of the tree.
+   *
+   * @param rootHash - Merkle Tree hash
+   * @param items - items to be verified for presence, in the same order as they were passed to
+   *     {@link #getMultiProof}
+   * @param proof - previously generated multiproof
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return <code>true</code> when the proof is valid for all the items, <code>false</code>
+   *     otherwise
+   * @param <T> - user defined type backing this list
+   */
+  public static <T> boolean verifyMultiProof(
+      byte[] rootHash,
+      java.util.List<T> items,
+      MultiProof proof,
+      Function<T, byte[]> serialiserFn) {
+    return proof.verify(rootHash, List.ofAll(items).map(item -> leafHash(item, serialiserFn)));
   }
 
   /**
@@ -139,26 +673,102 @@ public class MerkleTree<T> {
       T item,
       List<ProofItem> proof,
       Function<T, byte[]> serialiserFn) {
-    val serialisedItem = serialiserFn.apply(item);
+    return doVerifyProof(leafHash(item, serialiserFn), rootHash, proof);
+  }
 
-    return doVerifyProof(sha2_256(serialisedItem), rootHash, proof);
+  /**
+   * Verifies the provided proof against root hash of the tree, taking the leaf hash of the item
+   * from the cache.
+   *
+   * @param rootHash - Merkle Tree hash
+   * @param item - item to be verified for presence
+   * @param proof - previously generated Merkle Proof (notice that empty list is also a valid proof)
+   * @param cache - leaf hash cache wrapping the serialiser of items
+   * @return <code>true</code> when a proof is valid for the given item, <code>false</code>
+   *     otherwise
+   * @param <T> - user defined type backing this list
+   */
+  public static <T> boolean verifyProof(
+      byte[] rootHash, T item, List<ProofItem> proof, LeafHashCache<T> cache) {
+    // cached hashes are shared, the verifier hashes into its input
+    return doVerifyProof(cache.leafHash(item).clone(), rootHash, proof);
   }
 
   private static boolean doVerifyProof(byte[] itemHash, byte[] elementHash, List<ProofItem> proof) {
-    if (proof.size() == 0) {
-      return Arrays.equals(itemHash, elementHash);
+    // itemHash is freshly computed, so it is reused as the buffer for every level
+    val hash = itemHash;
+
+    for (val item : proof) {
+      if (item instanceof ProofItem.Left l) {
+        combineHash(l.getHash(), hash, hash);
+      } else if (item instanceof ProofItem.Right r) {
+        combineHash(hash, r.getHash(), hash);
+      } else {
+        throw new IllegalStateException("Unexpected value.");
+      }
     }
 
-    val head = proof.head();
+    return Arrays.equals(hash, elementHash);
+  }
 
-    if (head instanceof ProofItem.Left l) {
-      return doVerifyProof(combineHash(l.getHash(), itemHash), elementHash, proof.tail());
-    }
-    if (head instanceof ProofItem.Right r) {
-      return doVerifyProof(combineHash(itemHash, r.getHash()), elementHash, proof.tail());
+  /**
+   * Verifies many proofs against the same root hash in parallel on the common {@link ForkJoinPool}.
+   *
+   * @param rootHash - Merkle Tree hash
+   * @param items - items to be verified for presence
+   * @param proofs - previously generated Merkle Proofs, one per item at the same position
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing), must be safe to call from multiple threads
+   * @return - per item result, <code>true</code> at positions where the proof is valid
+   * @param <T> - user defined type backing this list
+   */
+  public static <T> boolean[] verifyProofs(
+      byte[] rootHash,
+      java.util.List<T> items,
+      java.util.List<List<ProofItem>> proofs,
+      Function<T, byte[]> serialiserFn) {
+    return verifyProofs(rootHash, items, proofs, serialiserFn, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Verifies many proofs against the same root hash in parallel on the given {@link ForkJoinPool}.
+   *
+   * @param rootHash - Merkle Tree hash
+   * @param items - items to be verified for presence
+   * @param proofs - previously generated Merkle Proofs, one per item at the same position
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing), must be safe to call from multiple threads
+   * @param pool - pool to run the verification in
+   * @return - per item result, <code>true</code> at positions where the proof is valid
+   * @param <T> - user defined type backing this list
+   */
+  public static <T> boolean[] verifyProofs(
+      byte[] rootHash,
+      java.util.List<T> items,
+      java.util.List<List<ProofItem>> proofs,
+      Function<T, byte[]> serialiserFn,
+      ForkJoinPool pool) {
+    if (items.size() != proofs.size()) {
+      throw new IllegalArgumentException(
+          "Got " + items.size() + " items, but " + proofs.size() + " proofs.");
     }
 
-    throw new IllegalStateException("Unexpected value.");
+    val indexedItems = items instanceof RandomAccess ? items : new ArrayList<>(items);
+    val indexedProofs = proofs instanceof RandomAccess ? proofs : new ArrayList<>(proofs);
+    val results = new boolean[indexedItems.size()];
+
+    pool.invoke(
+        new ProofVerificationTask<>(
+            rootHash,
+            indexedItems,
+            indexedProofs,
+            serialiserFn,
+            results,
+            0,
+            results.length,
+            ProofVerificationTask.DEFAULT_THRESHOLD));
+
+    return results;
   }
 
   /**
@@ -169,32 +779,68 @@ public class MerkleTree<T> {
    * @param <T> - user defined type backing this list
    */
   public static <T> List<T> toList(MerkleElement<T> root) {
-    return doGetList(root, List.empty());
-  }
+    // leaves are visited right to left and prepended, with an explicit stack
+    var items = List.<T>empty();
+    val stack = new ArrayDeque<MerkleElement<T>>();
+    stack.push(root);
 
-  private static <T> List<T> doGetList(MerkleElement<T> element, List<T> acc) {
-    if (element instanceof MerkleEmpty<?>) {
-      return acc;
-    }
-    if (element instanceof MerkleNode<T> mn) {
-      val goLeft = doGetList(mn.getLeft(), acc);
-      val goRight = doGetList(mn.getRight(), acc);
+    while (!stack.isEmpty()) {
+      val element = stack.pop();
 
-      return goLeft.appendAll(goRight);
+      if (element instanceof MerkleLeaf<T> ml) {
+        items = items.prepend(ml.getItem());
+      } else if (element instanceof MerkleNode<T> mn) {
+        stack.push(mn.getLeft());
+        stack.push(mn.getRight());
+      }
     }
 
-    if (element instanceof MerkleLeaf<T> ml) {
-      return acc.append(ml.getItem());
-    }
+    return items;
+  }
 
-    throw new IllegalStateException("Unexpected value.");
+  /**
+   * Returns a lazy iterator over the original items stored in the Merkle Tree, in tree order. Items
+   * of {@link LazyMerkleLeaf}s are loaded as the iterator reaches them.
+   *
+   * @param root - Merkle Root element
+   * @return - iterator of original elements (before hashing)
+   * @param <T> - user defined type backing this list
+   */
+  public static <T> Iterator<T> iterator(MerkleElement<T> root) {
+    return Spliterators.iterator(spliterator(root));
+  }
+
+  /**
+   * Returns a spliterator over the original items stored in the Merkle Tree, in tree order. It
+   * splits along subtrees and knows exact sizes, so parallel streams divide work evenly.
+   *
+   * @param root - Merkle Root element
+   * @return - spliterator of original elements (before hashing)
+   * @param <T> - user defined type backing this list
+   */
+  public static <T> Spliterator<T> spliterator(MerkleElement<T> root) {
+    return new LeafSpliterator<>(root);
+  }
+
+  /**
+   * Returns a stream of the original items stored in the Merkle Tree, in tree order.
+   *
+   * @param root - Merkle Root element
+   * @param parallel - whether the stream should be parallel
+   * @return - stream of original elements (before hashing)
+   * @param <T> - user defined type backing this list
+   */
+  public static <T> Stream<T> stream(MerkleElement<T> root, boolean parallel) {
+    return StreamSupport.stream(spliterator(root), parallel);
   }
 
   /**
    * Adds new item to a Merkle Tree.
    *
-   * <p>Caution: method is inefficient (works well on small data sets but performs poorly for > 1
-   * mln leafs Merkle Tree)
+   * <p>Only nodes whose leaf range changes are rehashed, all other subtrees are reused by reference
+   * and existing items are never serialised again. Resulting root hash is identical to calling
+   * {@link #fromList} with the new item appended. The tree is expected to have been built by {@link
+   * #fromList} (or to follow the same shape).
    *
    * @param root - Merkle Tree root
    * @param item - item to be added
@@ -205,16 +851,54 @@ public class MerkleTree<T> {
    */
   public static <T> MerkleElement<T> add(
       MerkleElement<T> root, T item, Function<T, byte[]> serialiserFn) {
-    val items = MerkleTree.toList(root);
+    return add(root, item, serialiserFn, null);
+  }
+
+  /**
+   * Adds new item to a Merkle Tree, interning new nodes in the store (see {@link
+   * #add(MerkleElement, Object, Function)}).
+   *
+   * @param root - Merkle Tree root
+   * @param item - item to be added
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @param store - node store to intern new nodes in, null to create them directly
+   * @return new Merkle Tree root
+   * @param <T> - user defined type backing this list
+   */
+  public static <T> MerkleElement<T> add(
+      MerkleElement<T> root, T item, Function<T, byte[]> serialiserFn, MerkleNodeStore<T> store) {
+    return doAdd(root, item, leafHash(item, serialiserFn), store);
+  }
 
-    return fromList(items.append(item), serialiserFn);
+  /**
+   * Adds new item to a Merkle Tree, taking its leaf hash from the cache (see {@link
+   * #add(MerkleElement, Object, Function)}).
+   *
+   * @param root - Merkle Tree root
+   * @param item - item to be added
+   * @param cache - leaf hash cache wrapping the serialiser of items
+   * @return new Merkle Tree root
+   * @param <T> - user defined type backing this list
+   */
+  public static <T> MerkleElement<T> add(MerkleElement<T> root, T item, LeafHashCache<T> cache) {
+    return doAdd(root, item, cache.leafHash(item), null);
+  }
+
+  private static <T> MerkleElement<T> doAdd(
+      MerkleElement<T> root, T item, byte[] itemHash, MerkleNodeStore<T> store) {
+    val updater = new MerkleTreeUpdater<>(root, store);
+
+    return updater.keep(0, updater.oldSize()).append(leaf(item, itemHash, store)).build();
   }
 
   /**
-   * Removes an item from a Merkle Tree.
+   * Removes an item from a Merkle Tree (first occurrence).
    *
-   * <p>Caution: method is inefficient (works well on small data sets but performs poorly for > 1
-   * mln leafs Merkle Tree)
+   * <p>Only nodes whose leaf range changes are rehashed, all other subtrees are reused by reference
+   * and existing items are never serialised again. Resulting root hash is identical to calling
+   * {@link #fromList} without the removed item. The tree is expected to have been built by {@link
+   * #fromList} (or to follow the same shape).
    *
    * @param root - Merkle Tree root
    * @param item - item to be removed
@@ -225,8 +909,199 @@ public class MerkleTree<T> {
    */
   public static <T> MerkleElement<T> remove(
       MerkleElement<T> root, T item, Function<T, byte[]> serialiserFn) {
-    val items = MerkleTree.toList(root);
+    return remove(root, item, serialiserFn, null);
+  }
+
+  /**
+   * Removes an item from a Merkle Tree (first occurrence), interning new nodes in the store (see
+   * {@link #remove(MerkleElement, Object, Function)}).
+   *
+   * @param root - Merkle Tree root
+   * @param item - item to be removed
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @param store - node store to intern new nodes in, null to create them directly
+   * @return new Merkle Tree root
+   * @param <T> - user defined type backing this list
+   */
+  public static <T> MerkleElement<T> remove(
+      MerkleElement<T> root, T item, Function<T, byte[]> serialiserFn, MerkleNodeStore<T> store) {
+    return doRemove(root, item, leafHash(item, serialiserFn), store);
+  }
+
+  /**
+   * Removes an item from a Merkle Tree (first occurrence), taking its leaf hash from the cache (see
+   * {@link #remove(MerkleElement, Object, Function)}).
+   *
+   * @param root - Merkle Tree root
+   * @param item - item to be removed
+   * @param cache - leaf hash cache wrapping the serialiser of items
+   * @return new Merkle Tree root
+   * @param <T> - user defined type backing this list
+   */
+  public static <T> MerkleElement<T> remove(MerkleElement<T> root, T item, LeafHashCache<T> cache) {
+    return doRemove(root, item, cache.leafHash(item), null);
+  }
+
+  private static <T> MerkleElement<T> doRemove(
+      MerkleElement<T> root, T item, byte[] itemHash, MerkleNodeStore<T> store) {
+    val updater = new MerkleTreeUpdater<>(root, store);
+    val index = updater.indexOf(item, itemHash);
+
+    if (index < 0) {
+      return root;
+    }
+
+    return updater.keep(0, index).keep(index + 1, updater.oldSize() - index - 1).build();
+  }
+
+  /**
+   * Applies many changes to a Merkle Tree at once. Items are removed first (each one its first
+   * occurrence not removed by an earlier item of the batch, items not found are ignored), then
+   * added items are appended in order.
+   *
+   * <p>Cost: leaves to remove are found in a single walk over all <code>n</code> leaves, comparing
+   * leaf hashes (see {@link #applyBatch(MerkleIndex, java.util.List, java.util.List, Function)} to
+   * avoid that walk when updating a tree repeatedly). Every node whose leaf range changed is
+   * rehashed exactly once and all other subtrees are reused by reference. Under the <code>len / 2
+   * </code> split of {@link #fromList} a removal shifts every later leaf, so a removal near the
+   * start rehashes about <code>n</code> nodes, while a batch of only appends rehashes <code>
+   * O(k log n)</code> nodes for <code>k</code> items. Existing items are never serialised again.
+   * Resulting root hash is identical to calling {@link #fromList} with the resulting items.
+   *
+   * @param root - Merkle Tree root
+   * @param adds - items to be appended
+   * @param removes - items to be removed
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return new Merkle Tree root
+   * @param <T> - user defined type backing this list
+   */
+  public static <T> MerkleElement<T> applyBatch(
+      MerkleElement<T> root,
+      java.util.List<T> adds,
+      java.util.List<T> removes,
+      Function<T, byte[]> serialiserFn) {
+    return applyBatch(root, adds, removes, serialiserFn, null);
+  }
+
+  /**
+   * Applies many changes to a Merkle Tree at once, interning new nodes in the store (see {@link
+   * #applyBatch(MerkleElement, java.util.List, java.util.List, Function)}).
+   *
+   * @param root - Merkle Tree root
+   * @param adds - items to be appended
+   * @param removes - items to be removed
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @param store - node store to intern new nodes in, null to create them directly
+   * @return new Merkle Tree root
+   * @param <T> - user defined type backing this list
+   */
+  public static <T> MerkleElement<T> applyBatch(
+      MerkleElement<T> root,
+      java.util.List<T> adds,
+      java.util.List<T> removes,
+      Function<T, byte[]> serialiserFn,
+      MerkleNodeStore<T> store) {
+    return doApplyBatch(root, null, adds, removes, leafHashFn(serialiserFn), store).root();
+  }
+
+  /**
+   * Applies many changes to the Merkle Tree of an index and returns the index of the updated tree,
+   * whose {@link MerkleIndex#root()} is the new root (see {@link #applyBatch(MerkleElement,
+   * java.util.List, java.util.List, Function)}). Leaves to remove are found through the index, each
+   * one by a single root-to-leaf descent, instead of a walk over all leaves. Only an item removed
+   * more than once in the batch falls back to that walk. The new index is derived from the old one
+   * and the changes (see {@link MerkleIndex}), so repeated updates never walk all leaves to index
+   * the new tree. The cost of rehashing is unchanged. The given index stays valid for the old tree.
+   *
+   * @param index - index of the Merkle Tree to update
+   * @param adds - items to be appended
+   * @param removes - items to be removed
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return index of the new Merkle Tree
+   * @param <T> - user defined type backing this list
+   */
+  public static <T> MerkleIndex<T> applyBatch(
+      MerkleIndex<T> index,
+      java.util.List<T> adds,
+      java.util.List<T> removes,
+      Function<T, byte[]> serialiserFn) {
+    val batch = doApplyBatch(index.root(), index, adds, removes, leafHashFn(serialiserFn), null);
 
-    return fromList(items.remove(item), serialiserFn);
+    return index.update(batch.root(), batch.removed(), batch.removedHashes(), batch.addedHashes());
   }
+
+  /**
+   * Applies many changes to a Merkle Tree at once, taking leaf hashes from the cache (see {@link
+   * #applyBatch(MerkleElement, java.util.List, java.util.List, Function)}).
+   *
+   * @param root - Merkle Tree root
+   * @param adds - items to be appended
+   * @param removes - items to be removed
+   * @param cache - leaf hash cache wrapping the serialiser of items
+   * @return new Merkle Tree root
+   * @param <T> - user defined type backing this list
+   */
+  public static <T> MerkleElement<T> applyBatch(
+      MerkleElement<T> root,
+      java.util.List<T> adds,
+      java.util.List<T> removes,
+      LeafHashCache<T> cache) {
+    return doApplyBatch(root, null, adds, removes, cache::leafHash, null).root();
+  }
+
+  private static <T> Batch<T> doApplyBatch(
+      MerkleElement<T> root,
+      MerkleIndex<T> index,
+      java.util.List<T> adds,
+      java.util.List<T> removes,
+      Function<T, byte[]> leafHashFn,
+      MerkleNodeStore<T> store) {
+    val updater = new MerkleTreeUpdater<>(root, store);
+
+    val removeHashes = new ArrayList<byte[]>(removes.size());
+    for (val item : removes) {
+      removeHashes.add(leafHashFn.apply(item));
+    }
+    val indices = updater.indicesOf(removes, removeHashes, index);
+    val removed = Arrays.stream(indices).filter(position -> position >= 0).sorted().toArray();
+
+    var from = 0;
+    for (val position : removed) {
+      updater.keep(from, position - from);
+      from = position + 1;
+    }
+    updater.keep(from, updater.oldSize() - from);
+
+    val addedHashes = new ArrayList<byte[]>(adds.size());
+    for (val item : adds) {
+      val itemHash = leafHashFn.apply(item);
+      addedHashes.add(itemHash);
+      updater.append(leaf(item, itemHash, store));
+    }
+
+    // hashes of removed leaves in the order of their positions
+    val removedHashes = new ArrayList<byte[]>(removed.length);
+    val hashesAt = new HashMap<Integer, byte[]>(removed.length * 2);
+    for (int i = 0; i < indices.length; i++) {
+      if (indices[i] >= 0) {
+        hashesAt.put(indices[i], removeHashes.get(i));
+      }
+    }
+    for (val position : removed) {
+      removedHashes.add(hashesAt.get(position));
+    }
+
+    return new Batch<>(updater.build(), removed, removedHashes, addedHashes);
+  }
+
+  /** Result of {@link #doApplyBatch}: new root and the leaves removed and appended. */
+  private record Batch<T>(
+      MerkleElement<T> root,
+      int[] removed,
+      java.util.List<byte[]> removedHashes,
+      java.util.List<byte[]> addedHashes) {}
 }
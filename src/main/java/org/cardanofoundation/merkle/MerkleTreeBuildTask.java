@@ -0,0 +1,74 @@
+package org.cardanofoundation.merkle;
+
+import static org.cardanofoundation.util.Hashing.combineHash;
+
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import lombok.val;
+
+/**
+ * Fork/join task building a (sub)tree over a range of a random access list. Ranges are split with
+ * the same <code>len / 2</code> rule as {@link MerkleTree#fromList}, so the resulting tree is
+ * identical to the sequential one. Ranges of at most <code>threshold</code> items are built on the
+ * current thread.
+ *
+ * @param <T> - user defined type backing this Merkle Tree
+ */
+final class MerkleTreeBuildTask<T> extends RecursiveTask<MerkleElement<T>> {
+
+  private final List<T> items;
+
+  private final Function<T, byte[]> serialiserFn;
+
+  private final int start;
+
+  private final int size;
+
+  private final int threshold;
+
+  MerkleTreeBuildTask(
+      List<T> items, Function<T, byte[]> serialiserFn, int start, int size, int threshold) {
+    this.items = items;
+    this.serialiserFn = serialiserFn;
+    this.start = start;
+    this.size = size;
+    this.threshold = threshold;
+  }
+
+  @Override
+  protected MerkleElement<T> compute() {
+    if (size <= threshold) {
+      return build(items, serialiserFn, start, size);
+    }
+
+    val cutOff = size / 2;
+    val leftTask = new MerkleTreeBuildTask<>(items, serialiserFn, start, cutOff, threshold);
+    val rightTask =
+        new MerkleTreeBuildTask<>(items, serialiserFn, start + cutOff, size - cutOff, threshold);
+
+    leftTask.fork();
+    val right = rightTask.compute();
+    val left = leftTask.join();
+
+    return new MerkleNode<>(combineHash(left.itemHash(), right.itemHash()), left, right);
+  }
+
+  static <T> MerkleElement<T> build(
+      List<T> items, Function<T, byte[]> serialiserFn, int start, int size) {
+    if (size == 0) {
+      return MerkleEmpty.create();
+    }
+    if (size == 1) {
+      val item = items.get(start);
+
+      return new MerkleLeaf<>(item, MerkleTree.leafHash(item, serialiserFn));
+    }
+
+    val cutOff = size / 2;
+    val left = build(items, serialiserFn, start, cutOff);
+    val right = build(items, serialiserFn, start + cutOff, size - cutOff);
+
+    return new MerkleNode<>(combineHash(left.itemHash(), right.itemHash()), left, right);
+  }
+}
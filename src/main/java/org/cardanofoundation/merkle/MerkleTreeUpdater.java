@@ -0,0 +1,266 @@
+package org.cardanofoundation.merkle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import lombok.val;
+import org.cardanofoundation.util.HashKey;
+
+/**
+ * Path-copying update engine for Merkle Trees shaped by {@link MerkleTree#fromList}.
+ *
+ * <p>The updated tree is described as a sequence of segments, each being either a run of
+ * consecutive leaves taken from the old tree or a freshly hashed leaf. The new sequence is laid out
+ * with the same <code>len / 2</code> split rule as Aiken's <code>from_list</code>, and every
+ * resulting subtree which spans exactly the same run of old leaves is reused by reference. Only
+ * nodes whose leaf range changed are rehashed and existing items are never serialised again, so
+ * root hashes stay byte-identical to a full rebuild.
+ *
+ * @param <T> - user defined type backing this Merkle Tree
+ */
+final class MerkleTreeUpdater<T> {
+
+  private final MerkleElement<T> oldRoot;
+
+  private final int oldSize;
+
+  /** Store interning new nodes, null when nodes are created directly. */
+  private final MerkleNodeStore<T> store;
+
+  private final ArrayList<Segment<T>> segments = new ArrayList<>();
+
+  private int newSize;
+
+  MerkleTreeUpdater(MerkleElement<T> oldRoot, MerkleNodeStore<T> store) {
+    this.oldRoot = oldRoot;
+    this.oldSize = oldRoot.size();
+    this.store = store;
+  }
+
+  int oldSize() {
+    return oldSize;
+  }
+
+  /** Appends a run of <code>length</code> old leaves starting at old position <code>from</code>. */
+  MerkleTreeUpdater<T> keep(int from, int length) {
+    if (length > 0) {
+      segments.add(new Segment<>(newSize, from, length, null));
+      newSize += length;
+    }
+
+    return this;
+  }
+
+  /** Appends a freshly hashed leaf. */
+  MerkleTreeUpdater<T> append(MerkleLeaf<T> leaf) {
+    segments.add(new Segment<>(newSize, -1, 1, leaf));
+    newSize++;
+
+    return this;
+  }
+
+  MerkleElement<T> build() {
+    if (newSize == 0) {
+      return MerkleEmpty.create();
+    }
+
+    return build(0, newSize);
+  }
+
+  private MerkleElement<T> build(int start, int size) {
+    val segment = segmentAt(start);
+
+    if (segment.leaf() != null) {
+      // fresh leaves are always singleton segments, so a subtree starting here is that leaf
+      if (size == 1) {
+        return segment.leaf();
+      }
+    } else if (start + size <= segment.newStart() + segment.length()) {
+      val reused = findOld(segment.oldStart() + (start - segment.newStart()), size);
+      if (reused != null) {
+        return reused;
+      }
+    }
+
+    val cutOff = size / 2;
+    val left = build(start, cutOff);
+    val right = build(start + cutOff, size - cutOff);
+
+    return MerkleTree.node(left, right, store);
+  }
+
+  private Segment<T> segmentAt(int position) {
+    int low = 0;
+    int high = segments.size() - 1;
+
+    while (low < high) {
+      val mid = (low + high + 1) >>> 1;
+      if (segments.get(mid).newStart() <= position) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+
+    return segments.get(low);
+  }
+
+  /** Finds the old subtree covering exactly old leaves [from, from + size), if there is one. */
+  private MerkleElement<T> findOld(int from, int size) {
+    var element = oldRoot;
+    var elementStart = 0;
+    var elementSize = oldSize;
+
+    while (true) {
+      if (elementStart == from && elementSize == size) {
+        return element;
+      }
+      if (!(element instanceof MerkleNode<T> mn)) {
+        return null;
+      }
+
+      val leftSize = mn.getLeft().size();
+
+      if (from + size <= elementStart + leftSize) {
+        element = mn.getLeft();
+        elementSize = leftSize;
+      } else if (from >= elementStart + leftSize) {
+        element = mn.getRight();
+        elementStart += leftSize;
+        elementSize -= leftSize;
+      } else {
+        return null;
+      }
+    }
+  }
+
+  /** Returns the old leaf at the given position, descending by the cached sizes of nodes. */
+  private MerkleLeaf<T> leafAt(int position) {
+    var element = oldRoot;
+    var offset = position;
+
+    while (element instanceof MerkleNode<T> mn) {
+      val leftSize = mn.getLeft().size();
+      if (offset < leftSize) {
+        element = mn.getLeft();
+      } else {
+        element = mn.getRight();
+        offset -= leftSize;
+      }
+    }
+
+    return element instanceof MerkleLeaf<T> ml ? ml : null;
+  }
+
+  /**
+   * Returns position of the first old leaf holding an item equal to the given one or -1 when there
+   * is no such leaf. Leaf hashes are compared first, so items are only loaded (see {@link
+   * LazyMerkleLeaf}) and compared for leaves with the same hash.
+   */
+  int indexOf(T item, byte[] itemHash) {
+    return doIndexOf(oldRoot, item, itemHash, 0);
+  }
+
+  private static <T> int doIndexOf(MerkleElement<T> element, T item, byte[] itemHash, int offset) {
+    if (element instanceof MerkleLeaf<T> ml) {
+      val found = Arrays.equals(ml.getItemHash(), itemHash) && Objects.equals(ml.getItem(), item);
+
+      return found ? offset : -1;
+    }
+    if (element instanceof MerkleNode<T> mn) {
+      val left = doIndexOf(mn.getLeft(), item, itemHash, offset);
+      if (left >= 0) {
+        return left;
+      }
+
+      return doIndexOf(mn.getRight(), item, itemHash, offset + mn.getLeft().size());
+    }
+
+    return -1;
+  }
+
+  /**
+   * Resolves positions of many items. Every item claims the first equal leaf not claimed by an
+   * earlier item, so equal items resolve to successive occurrences. Returns positions in the order
+   * of items, -1 for items without such a leaf.
+   *
+   * <p>With an index of the old tree, an item is resolved by one root-to-leaf descent to its first
+   * occurrence and items not in the tree are dismissed without any walk. Only items the index
+   * cannot resolve (later occurrences of an item repeated in the batch) are looked up in a walk
+   * over all old leaves, which is also the only strategy without an index.
+   *
+   * @param index - index of the old tree, null when there is none
+   */
+  int[] indicesOf(
+      java.util.List<T> items, java.util.List<byte[]> itemHashes, MerkleIndex<T> index) {
+    val indices = new int[items.size()];
+    Arrays.fill(indices, -1);
+
+    val claimed = new HashSet<Integer>();
+    val wanted = new HashMap<HashKey, java.util.List<Integer>>();
+    for (int i = 0; i < items.size(); i++) {
+      if (index != null) {
+        val position = index.indexOfHash(itemHashes.get(i)).orElse(-1);
+        if (position < 0) {
+          continue;
+        }
+        if (!claimed.contains(position)) {
+          val leaf = leafAt(position);
+          if (leaf != null && Objects.equals(leaf.getItem(), items.get(i))) {
+            indices[i] = position;
+            claimed.add(position);
+            continue;
+          }
+        }
+      }
+      wanted.computeIfAbsent(HashKey.of(itemHashes.get(i)), k -> new ArrayList<>(1)).add(i);
+    }
+
+    doIndicesOf(oldRoot, items, wanted, claimed, indices, 0);
+
+    return indices;
+  }
+
+  private static <T> void doIndicesOf(
+      MerkleElement<T> element,
+      java.util.List<T> items,
+      Map<HashKey, java.util.List<Integer>> wanted,
+      Set<Integer> claimed,
+      int[] indices,
+      int offset) {
+    if (wanted.isEmpty()) {
+      return;
+    }
+    if (element instanceof MerkleLeaf<T> ml) {
+      val key = HashKey.of(ml.getItemHash());
+      val pending = wanted.get(key);
+      if (pending == null || claimed.contains(offset)) {
+        return;
+      }
+
+      val item = ml.getItem();
+      for (var iterator = pending.iterator(); iterator.hasNext(); ) {
+        val i = iterator.next();
+        if (Objects.equals(items.get(i), item)) {
+          indices[i] = offset;
+          iterator.remove();
+          break;
+        }
+      }
+      if (pending.isEmpty()) {
+        wanted.remove(key);
+      }
+      return;
+    }
+    if (element instanceof MerkleNode<T> mn) {
+      doIndicesOf(mn.getLeft(), items, wanted, claimed, indices, offset);
+      doIndicesOf(mn.getRight(), items, wanted, claimed, indices, offset + mn.getLeft().size());
+    }
+  }
+
+  private record Segment<T>(int newStart, int oldStart, int length, MerkleLeaf<T> leaf) {}
+}
@@ -0,0 +1,139 @@
+package org.cardanofoundation.merkle;
+
+import static org.cardanofoundation.util.Hashing.combineHash;
+
+import io.vavr.collection.List;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.TreeMap;
+import lombok.val;
+
+/**
+ * Proof of membership of several leaves of the same Merkle Tree at once. Instead of a separate list
+ * of {@link ProofItem}s per leaf, every hash needed to recompute the root is included exactly once:
+ * hashes of the maximal subtrees without any proven leaf, in pre-order (left to right). Hashes of
+ * nodes above proven leaves are recomputed by the verifier, so they are never included.
+ *
+ * <p>The shape of the tree is derived from <code>treeSize</code> using the <code>len / 2</code>
+ * split of {@link MerkleTree#fromList}.
+ *
+ * @param treeSize - number of leaves in the tree
+ * @param leafIndices - positions of the proven leaves, in the order items were requested
+ * @param hashes - hashes of subtrees without proven leaves, in pre-order
+ */
+public record MultiProof(int treeSize, List<Integer> leafIndices, List<byte[]> hashes) {
+
+  static <T> MultiProof create(MerkleElement<T> root, int treeSize, List<Integer> leafIndices) {
+    val sorted = leafIndices.distinct().sorted().toJavaStream().mapToInt(i -> i).toArray();
+    val hashes = new java.util.ArrayList<byte[]>();
+
+    collect(root, treeSize, sorted, 0, 0, sorted.length, hashes);
+
+    return new MultiProof(treeSize, leafIndices, List.ofAll(hashes));
+  }
+
+  private static <T> void collect(
+      MerkleElement<T> element,
+      int size,
+      int[] sorted,
+      int start,
+      int lo,
+      int hi,
+      java.util.List<byte[]> hashes) {
+    if (lo == hi) {
+      hashes.add(element.itemHash());
+      return;
+    }
+    if (!(element instanceof MerkleNode<T> mn)) {
+      return;
+    }
+
+    val cutOff = size / 2;
+    var mid = lo;
+    while (mid < hi && sorted[mid] < start + cutOff) {
+      mid++;
+    }
+
+    collect(mn.getLeft(), cutOff, sorted, start, lo, mid, hashes);
+    collect(mn.getRight(), size - cutOff, sorted, start + cutOff, mid, hi, hashes);
+  }
+
+  /**
+   * Recomputes the root hash from hashes of the proven leaves and compares it with the given one.
+   *
+   * @param rootHash - expected Merkle Tree root hash
+   * @param leafHashes - hashes of the proven leaves, in the order of {@link #leafIndices()}
+   * @return <code>true</code> when the proof is valid, <code>false</code> otherwise
+   */
+  boolean verify(byte[] rootHash, List<byte[]> leafHashes) {
+    if (treeSize <= 0 || leafIndices.isEmpty() || leafIndices.size() != leafHashes.size()) {
+      return false;
+    }
+
+    val leaves = new TreeMap<Integer, byte[]>();
+    for (val leaf : leafIndices.zip(leafHashes)) {
+      if (leaf._1 < 0 || leaf._1 >= treeSize) {
+        return false;
+      }
+
+      val previous = leaves.putIfAbsent(leaf._1, leaf._2);
+      if (previous != null && !Arrays.equals(previous, leaf._2)) {
+        return false;
+      }
+    }
+
+    val sorted = leaves.keySet().stream().mapToInt(i -> i).toArray();
+    val sortedHashes = leaves.values().toArray(new byte[0][]);
+    val remaining = hashes.iterator();
+
+    val computed = rebuild(treeSize, sorted, sortedHashes, 0, 0, sorted.length, remaining);
+
+    return computed != null && !remaining.hasNext() && Arrays.equals(computed, rootHash);
+  }
+
+  private static byte[] rebuild(
+      int size,
+      int[] sorted,
+      byte[][] sortedHashes,
+      int start,
+      int lo,
+      int hi,
+      Iterator<byte[]> remaining) {
+    if (lo == hi) {
+      return remaining.hasNext() ? remaining.next() : null;
+    }
+    if (size == 1) {
+      return sortedHashes[lo];
+    }
+
+    val cutOff = size / 2;
+    var mid = lo;
+    while (mid < hi && sorted[mid] < start + cutOff) {
+      mid++;
+    }
+
+    val left = rebuild(cutOff, sorted, sortedHashes, start, lo, mid, remaining);
+    if (left == null) {
+      return null;
+    }
+    val right = rebuild(size - cutOff, sorted, sortedHashes, start + cutOff, mid, hi, remaining);
+    if (right == null) {
+      return null;
+    }
+
+    return combineHash(left, right);
+  }
+
+  @Override
+  public String toString() {
+    return "MultiProof{"
+        + "treeSize="
+        + treeSize
+        + ", leafIndices="
+        + leafIndices
+        + ", hashes="
+        + hashes.map(hash -> "0x" + HexFormat.of().formatHex(hash))
+        + '}';
+  }
+}
@@ -0,0 +1,96 @@
+package org.cardanofoundation.merkle;
+
+import static org.cardanofoundation.merkle.FlatLayout.HASH_SIZE;
+import static org.cardanofoundation.util.Hashing.combineHash;
+
+import io.vavr.collection.List;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Function;
+import lombok.val;
+
+/**
+ * View of a proof encoded by {@link MerkleCodec}, reading directions and hashes straight from the
+ * encoded bytes.
+ */
+public final class ProofReader {
+
+  private final int length;
+
+  private final ByteBuffer bitmap;
+
+  private final ByteBuffer hashes;
+
+  ProofReader(int length, ByteBuffer bitmap, ByteBuffer hashes) {
+    this.length = length;
+    this.bitmap = bitmap;
+    this.hashes = hashes;
+  }
+
+  /** Returns number of proof steps. */
+  public int length() {
+    return length;
+  }
+
+  /** Returns true when the sibling at the given step (zero for the deepest) is on the left. */
+  public boolean isLeft(int step) {
+    checkStep(step);
+
+    return (bitmap.get(step / 8) & (1 << (step % 8))) != 0;
+  }
+
+  /** Returns read-only view of the sibling hash at the given step (zero for the deepest). */
+  public ByteBuffer hash(int step) {
+    checkStep(step);
+
+    return hashes.slice(step * HASH_SIZE, HASH_SIZE).asReadOnlyBuffer();
+  }
+
+  /**
+   * Verifies the proof against root hash of a tree, without materialising {@link ProofItem}s.
+   *
+   * @param rootHash - Merkle Tree hash
+   * @param item - item to be verified for presence
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return <code>true</code> when a proof is valid for the given item, <code>false</code>
+   *     otherwise
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public <T> boolean verify(byte[] rootHash, T item, Function<T, byte[]> serialiserFn) {
+    val hash = MerkleTree.leafHash(item, serialiserFn);
+    val sibling = new byte[HASH_SIZE];
+
+    for (int step = 0; step < length; step++) {
+      hashes.get(step * HASH_SIZE, sibling);
+
+      if (isLeft(step)) {
+        combineHash(sibling, hash, hash);
+      } else {
+        combineHash(hash, sibling, hash);
+      }
+    }
+
+    return Arrays.equals(hash, rootHash);
+  }
+
+  /** Copies the proof into {@link ProofItem}s. */
+  public List<ProofItem> toProofItems() {
+    var proof = List.<ProofItem>empty();
+
+    for (int step = length - 1; step >= 0; step--) {
+      val hash = new byte[HASH_SIZE];
+      hashes.get(step * HASH_SIZE, hash);
+
+      proof = proof.prepend(isLeft(step) ? new ProofItem.Left(hash) : new ProofItem.Right(hash));
+    }
+
+    return proof;
+  }
+
+  private void checkStep(int step) {
+    if (step < 0 || step >= length) {
+      throw new IndexOutOfBoundsException("Step " + step + " out of bounds for length " + length);
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package org.cardanofoundation.merkle;
+
+import io.vavr.collection.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import lombok.val;
+
+/**
+ * Fork/join task verifying proofs of a range of items against the same root hash, used by {@link
+ * MerkleTree#verifyProofs}. Ranges are halved until they hold at most <code>threshold</code> items,
+ * which are verified on the current thread. Each result is written to the position of its item.
+ *
+ * @param <T> - user defined type backing this Merkle Tree
+ */
+final class ProofVerificationTask<T> extends RecursiveAction {
+
+  /** Number of proofs below which a range is verified sequentially. */
+  static final int DEFAULT_THRESHOLD = 64;
+
+  private final byte[] rootHash;
+
+  private final java.util.List<T> items;
+
+  private final java.util.List<List<ProofItem>> proofs;
+
+  private final Function<T, byte[]> serialiserFn;
+
+  private final boolean[] results;
+
+  private final int start;
+
+  private final int size;
+
+  private final int threshold;
+
+  ProofVerificationTask(
+      byte[] rootHash,
+      java.util.List<T> items,
+      java.util.List<List<ProofItem>> proofs,
+      Function<T, byte[]> serialiserFn,
+      boolean[] results,
+      int start,
+      int size,
+      int threshold) {
+    this.rootHash = rootHash;
+    this.items = items;
+    this.proofs = proofs;
+    this.serialiserFn = serialiserFn;
+    this.results = results;
+    this.start = start;
+    this.size = size;
+    this.threshold = threshold;
+  }
+
+  @Override
+  protected void compute() {
+    if (size <= threshold) {
+      for (int i = start; i < start + size; i++) {
+        results[i] = MerkleTree.verifyProof(rootHash, items.get(i), proofs.get(i), serialiserFn);
+      }
+      return;
+    }
+
+    val cutOff = size / 2;
+
+    invokeAll(
+        new ProofVerificationTask<>(
+            rootHash, items, proofs, serialiserFn, results, start, cutOff, threshold),
+        new ProofVerificationTask<>(
+            rootHash,
+            items,
+            proofs,
+            serialiserFn,
+            results,
+            start + cutOff,
+            size - cutOff,
+            threshold));
+  }
+}
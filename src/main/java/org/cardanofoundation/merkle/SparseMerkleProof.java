@@ -0,0 +1,96 @@
+package org.cardanofoundation.merkle;
+
+import static org.cardanofoundation.util.Hashing.combineHash;
+
+import io.vavr.collection.List;
+import java.util.HexFormat;
+import lombok.val;
+
+/**
+ * Compact proof for a key of a {@link SparseMerkleTree}, proving either membership or
+ * non-membership depending on the leaf hash it is verified with. Of the 256 siblings on the path
+ * from the root to the key only those which are not default hashes of empty subtrees are included;
+ * the bitmap tells which ones.
+ *
+ * @param key - key the proof is for (sha2_256 of the serialised item)
+ * @param bitmap - 32 bytes, bit <code>d</code> (most significant first) is set when the sibling at
+ *     depth <code>d</code> is included
+ * @param siblings - included siblings, the deepest one first
+ */
+public record SparseMerkleProof(byte[] key, byte[] bitmap, List<byte[]> siblings) {
+
+  /**
+   * Expands the proof to one {@link ProofItem} per level, the deepest one first. A membership proof
+   * expanded this way verifies with {@link MerkleTree#verifyProof}.
+   *
+   * @return - 256 proof items
+   */
+  public List<ProofItem> toProofItems() {
+    val items = new ProofItem[SparseMerkleTree.DEPTH];
+    val remaining = siblings.iterator();
+
+    for (int depth = SparseMerkleTree.DEPTH - 1; depth >= 0; depth--) {
+      val sibling =
+          SparseMerkleTree.bit(bitmap, depth) == 1
+              ? remaining.next()
+              : SparseMerkleTree.defaultHash(depth + 1);
+
+      items[SparseMerkleTree.DEPTH - 1 - depth] =
+          SparseMerkleTree.bit(key, depth) == 0
+              ? new ProofItem.Right(sibling)
+              : new ProofItem.Left(sibling);
+    }
+
+    return List.of(items);
+  }
+
+  /** Recomputes the root hash from the hash of the leaf at the key, null when malformed. */
+  byte[] computeRoot(byte[] leafHash) {
+    if (key.length != SparseMerkleTree.KEY_LENGTH
+        || bitmap.length != SparseMerkleTree.KEY_LENGTH
+        || siblings.size() != bitCount(bitmap)) {
+      return null;
+    }
+
+    var hash = leafHash;
+    var remaining = siblings;
+
+    for (int depth = SparseMerkleTree.DEPTH - 1; depth >= 0; depth--) {
+      byte[] sibling;
+      if (SparseMerkleTree.bit(bitmap, depth) == 1) {
+        sibling = remaining.head();
+        remaining = remaining.tail();
+      } else {
+        sibling = SparseMerkleTree.defaultHash(depth + 1);
+      }
+
+      hash =
+          SparseMerkleTree.bit(key, depth) == 0
+              ? combineHash(hash, sibling)
+              : combineHash(sibling, hash);
+    }
+
+    return hash;
+  }
+
+  private static int bitCount(byte[] bitmap) {
+    var count = 0;
+    for (val b : bitmap) {
+      count += Integer.bitCount(b & 0xff);
+    }
+
+    return count;
+  }
+
+  @Override
+  public String toString() {
+    return "SparseMerkleProof{"
+        + "key=0x"
+        + HexFormat.of().formatHex(key)
+        + ", bitmap=0x"
+        + HexFormat.of().formatHex(bitmap)
+        + ", siblings="
+        + siblings.map(hash -> "0x" + HexFormat.of().formatHex(hash))
+        + '}';
+  }
+}
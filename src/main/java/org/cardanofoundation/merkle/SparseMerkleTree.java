@@ -0,0 +1,485 @@
+package org.cardanofoundation.merkle;
+
+import static org.cardanofoundation.util.Hashing.combineHash;
+
+import io.vavr.collection.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Function;
+import lombok.val;
+
+/**
+ * Sparse Merkle Tree of depth 256, where every item sits at the leaf addressed by its key: sha2_256
+ * of the serialised item (the same leaf hash as in {@link MerkleTree}). The leaf holds the key
+ * itself, empty leaves hold 32 zero bytes and a node hashes its children with {@link
+ * org.cardanofoundation.util.Hashing#combineHash}. As the position of an item is derived from the
+ * item, absence can be proven as well as presence, and no search is needed to build a proof.
+ *
+ * <p>Empty subtrees are never stored, their hashes are precomputed per depth. Only branching nodes
+ * (with both subtrees non-empty) and leaves are kept, so a tree of <code>n</code> items has <code>
+ * 2n - 1</code> nodes and is <code>O(log n)</code> deep on average. Insert, delete and proofs take
+ * <code>O(256)</code> hashes at most.
+ *
+ * <p>Instances are immutable, every change returns a new tree sharing unchanged subtrees with the
+ * old one.
+ *
+ * @param <T> - user defined type backing this Merkle Tree
+ */
+public final class SparseMerkleTree<T> {
+
+  /** Depth of the tree, number of bits of a key. */
+  public static final int DEPTH = 256;
+
+  static final int KEY_LENGTH = DEPTH / 8;
+
+  /** Hashes of empty subtrees, indexed by depth of their root (the leaf level is DEPTH). */
+  private static final byte[][] DEFAULT_HASHES = new byte[DEPTH + 1][];
+
+  static {
+    DEFAULT_HASHES[DEPTH] = new byte[KEY_LENGTH];
+    for (int depth = DEPTH - 1; depth >= 0; depth--) {
+      DEFAULT_HASHES[depth] = combineHash(DEFAULT_HASHES[depth + 1], DEFAULT_HASHES[depth + 1]);
+    }
+  }
+
+  private final Function<T, byte[]> serialiserFn;
+
+  private final Node<T> root;
+
+  private final int size;
+
+  private final byte[] rootHash;
+
+  private SparseMerkleTree(Function<T, byte[]> serialiserFn, Node<T> root, int size) {
+    this.serialiserFn = serialiserFn;
+    this.root = root;
+    this.size = size;
+    this.rootHash = root == null ? DEFAULT_HASHES[0] : lift(root, 0);
+  }
+
+  /**
+   * Creates an empty Sparse Merkle Tree.
+   *
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return - empty tree
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> SparseMerkleTree<T> empty(Function<T, byte[]> serialiserFn) {
+    return new SparseMerkleTree<>(serialiserFn, null, 0);
+  }
+
+  /**
+   * Create a Sparse Merkle Tree from a list of elements (using vavr list).
+   *
+   * @param items - original items, items serialising the same are kept once
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return - Sparse Merkle Tree
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> SparseMerkleTree<T> fromList(List<T> items, Function<T, byte[]> serialiserFn) {
+    return fromList(items.toJavaList(), serialiserFn);
+  }
+
+  /**
+   * Create a Sparse Merkle Tree from a list of elements (using java.util list). Leaves are sorted
+   * by key and the tree is built bottom up, without intermediate versions.
+   *
+   * @param items - original items, items serialising the same are kept once
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return - Sparse Merkle Tree
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> SparseMerkleTree<T> fromList(
+      java.util.List<T> items, Function<T, byte[]> serialiserFn) {
+    val leaves = new ArrayList<Leaf<T>>(items.size());
+    for (val item : items) {
+      leaves.add(new Leaf<>(key(item, serialiserFn), item));
+    }
+    leaves.sort((a, b) -> Arrays.compareUnsigned(a.key(), b.key()));
+
+    // keep the last of leaves with equal keys
+    val distinct = new ArrayList<Leaf<T>>(leaves.size());
+    for (val leaf : leaves) {
+      if (!distinct.isEmpty()
+          && Arrays.equals(distinct.get(distinct.size() - 1).key(), leaf.key())) {
+        distinct.set(distinct.size() - 1, leaf);
+      } else {
+        distinct.add(leaf);
+      }
+    }
+
+    val root = distinct.isEmpty() ? null : build(distinct, 0, distinct.size());
+
+    return new SparseMerkleTree<>(serialiserFn, root, distinct.size());
+  }
+
+  private static <T> Node<T> build(java.util.List<Leaf<T>> sorted, int from, int to) {
+    if (to - from == 1) {
+      return sorted.get(from);
+    }
+
+    // keys are sorted, so the first and the last one differ at the branching depth
+    val depth = firstDifference(sorted.get(from).key(), sorted.get(to - 1).key());
+    var mid = from + 1;
+    while (bit(sorted.get(mid).key(), depth) == 0) {
+      mid++;
+    }
+
+    return Branch.of(depth, build(sorted, from, mid), build(sorted, mid, to));
+  }
+
+  /**
+   * Returns the key of an item: sha2_256 of the serialised item.
+   *
+   * @param item - user defined item
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return - 32 bytes key
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> byte[] key(T item, Function<T, byte[]> serialiserFn) {
+    return MerkleTree.leafHash(item, serialiserFn);
+  }
+
+  /** Returns root hash of the tree, the hash of an empty tree of depth 256 when empty. */
+  public byte[] rootHash() {
+    return rootHash.clone();
+  }
+
+  /** Returns number of items. */
+  public int size() {
+    return size;
+  }
+
+  /** Returns true when the tree has no items. */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Checks whether an item is part of the tree.
+   *
+   * @param item - user defined item
+   * @return - true when the leaf of the item is not empty
+   */
+  public boolean contains(T item) {
+    return get(key(item, serialiserFn)).isPresent();
+  }
+
+  /**
+   * Returns the item stored under a key.
+   *
+   * @param key - 32 bytes key
+   * @return - stored item, empty when the leaf is empty
+   */
+  public Optional<T> get(byte[] key) {
+    var node = root;
+    while (node instanceof Branch<T> branch) {
+      if (firstDifference(branch.key(), key) < branch.depth()) {
+        return Optional.empty();
+      }
+      node = bit(key, branch.depth()) == 0 ? branch.left() : branch.right();
+    }
+
+    return node instanceof Leaf<T> leaf && Arrays.equals(leaf.key(), key)
+        ? Optional.of(leaf.item())
+        : Optional.empty();
+  }
+
+  /**
+   * Inserts an item, replacing an item which serialises the same.
+   *
+   * @param item - item to be inserted
+   * @return - new tree, sharing unchanged subtrees with this one
+   */
+  public SparseMerkleTree<T> insert(T item) {
+    val leaf = new Leaf<>(key(item, serialiserFn), item);
+    val replaced = containsKey(leaf.key());
+
+    return new SparseMerkleTree<>(serialiserFn, insert(root, leaf), replaced ? size : size + 1);
+  }
+
+  private static <T> Node<T> insert(Node<T> node, Leaf<T> leaf) {
+    if (node == null) {
+      return leaf;
+    }
+
+    val difference = firstDifference(node.key(), leaf.key());
+    if (node instanceof Leaf<T> && difference == DEPTH) {
+      return leaf;
+    }
+    if (difference < node.depth()) {
+      // the new leaf leaves the subtree above its root, they become siblings
+      return bit(leaf.key(), difference) == 0
+          ? Branch.of(difference, leaf, node)
+          : Branch.of(difference, node, leaf);
+    }
+
+    val branch = (Branch<T>) node;
+    if (bit(leaf.key(), branch.depth()) == 0) {
+      return branch.withLeft(insert(branch.left(), leaf));
+    }
+
+    return branch.withRight(insert(branch.right(), leaf));
+  }
+
+  /**
+   * Deletes an item.
+   *
+   * @param item - item to be deleted
+   * @return - new tree, or this tree when the item is not part of it
+   */
+  public SparseMerkleTree<T> delete(T item) {
+    val key = key(item, serialiserFn);
+    if (!containsKey(key)) {
+      return this;
+    }
+
+    return new SparseMerkleTree<>(serialiserFn, delete(root, key), size - 1);
+  }
+
+  private static <T> Node<T> delete(Node<T> node, byte[] key) {
+    if (node instanceof Leaf<T>) {
+      return null;
+    }
+
+    val branch = (Branch<T>) node;
+    if (bit(key, branch.depth()) == 0) {
+      val left = delete(branch.left(), key);
+
+      return left == null ? branch.right() : branch.withLeft(left);
+    }
+
+    val right = delete(branch.right(), key);
+
+    return right == null ? branch.left() : branch.withRight(right);
+  }
+
+  /**
+   * Replaces an item with another one, which usually sits at a different key.
+   *
+   * @param oldItem - item to be deleted
+   * @param newItem - item to be inserted
+   * @return - new tree, sharing unchanged subtrees with this one
+   */
+  public SparseMerkleTree<T> update(T oldItem, T newItem) {
+    return delete(oldItem).insert(newItem);
+  }
+
+  /** Returns items in the order of their keys. */
+  public List<T> toList() {
+    val items = new ArrayList<T>(size);
+    collect(root, items);
+
+    return List.ofAll(items);
+  }
+
+  private static <T> void collect(Node<T> node, java.util.List<T> items) {
+    if (node instanceof Leaf<T> leaf) {
+      items.add(leaf.item());
+    } else if (node instanceof Branch<T> branch) {
+      collect(branch.left(), items);
+      collect(branch.right(), items);
+    }
+  }
+
+  /**
+   * Get a proof for the leaf of an item, a membership proof when the item is part of the tree and a
+   * non-membership proof otherwise.
+   *
+   * @param item - user defined item
+   * @return - compact proof
+   */
+  public SparseMerkleProof getProof(T item) {
+    return getProofForKey(key(item, serialiserFn));
+  }
+
+  /**
+   * Get a proof for the leaf at a key, a membership proof when the leaf is not empty and a
+   * non-membership proof otherwise.
+   *
+   * @param key - 32 bytes key
+   * @return - compact proof
+   */
+  public SparseMerkleProof getProofForKey(byte[] key) {
+    val siblings = new byte[DEPTH][];
+
+    var node = root;
+    while (node != null) {
+      val difference = firstDifference(node.key(), key);
+      if (difference < node.depth()) {
+        // the key leaves the subtree above its root, so the whole subtree is a sibling
+        siblings[difference] = lift(node, difference + 1);
+        break;
+      }
+      if (!(node instanceof Branch<T> branch)) {
+        break;
+      }
+
+      if (bit(key, branch.depth()) == 0) {
+        siblings[branch.depth()] = branch.rightHash();
+        node = branch.left();
+      } else {
+        siblings[branch.depth()] = branch.leftHash();
+        node = branch.right();
+      }
+    }
+
+    val bitmap = new byte[KEY_LENGTH];
+    var included = List.<byte[]>empty();
+    for (int depth = 0; depth < DEPTH; depth++) {
+      if (siblings[depth] != null) {
+        bitmap[depth >>> 3] |= (byte) (0x80 >>> (depth & 7));
+        // deeper siblings end up first
+        included = included.prepend(siblings[depth]);
+      }
+    }
+
+    return new SparseMerkleProof(key.clone(), bitmap, included);
+  }
+
+  /**
+   * Verifies that an item is part of a Sparse Merkle Tree with the given root hash.
+   *
+   * @param rootHash - Sparse Merkle Tree root hash
+   * @param item - user defined item
+   * @param proof - proof for the key of the item
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return <code>true</code> when the proof is valid, <code>false</code> otherwise
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> boolean verifyMembership(
+      byte[] rootHash, T item, SparseMerkleProof proof, Function<T, byte[]> serialiserFn) {
+    val key = key(item, serialiserFn);
+    if (!Arrays.equals(key, proof.key())) {
+      return false;
+    }
+
+    return Arrays.equals(rootHash, proof.computeRoot(key));
+  }
+
+  /**
+   * Verifies that an item is not part of a Sparse Merkle Tree with the given root hash.
+   *
+   * @param rootHash - Sparse Merkle Tree root hash
+   * @param item - user defined item
+   * @param proof - proof for the key of the item
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return <code>true</code> when the proof is valid, <code>false</code> otherwise
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> boolean verifyNonMembership(
+      byte[] rootHash, T item, SparseMerkleProof proof, Function<T, byte[]> serialiserFn) {
+    if (!Arrays.equals(key(item, serialiserFn), proof.key())) {
+      return false;
+    }
+
+    return Arrays.equals(rootHash, proof.computeRoot(DEFAULT_HASHES[DEPTH]));
+  }
+
+  private boolean containsKey(byte[] key) {
+    return get(key).isPresent();
+  }
+
+  /** Returns hash of an empty subtree rooted at the given depth. */
+  static byte[] defaultHash(int depth) {
+    return DEFAULT_HASHES[depth];
+  }
+
+  /** Returns bit of a key at the given depth, the most significant bit first. */
+  static int bit(byte[] key, int depth) {
+    return (key[depth >>> 3] >>> (7 - (depth & 7))) & 1;
+  }
+
+  /** Returns depth of the first bit in which keys differ, DEPTH when they are equal. */
+  private static int firstDifference(byte[] a, byte[] b) {
+    for (int i = 0; i < KEY_LENGTH; i++) {
+      val difference = (a[i] ^ b[i]) & 0xff;
+      if (difference != 0) {
+        return i * 8 + Integer.numberOfLeadingZeros(difference) - 24;
+      }
+    }
+
+    return DEPTH;
+  }
+
+  /**
+   * Returns hash of the subtree rooted at the given depth, whose only non-empty subtree is the
+   * node, hashing it with default hashes of empty siblings on the way up.
+   */
+  private static byte[] lift(Node<?> node, int depth) {
+    var hash = node.hash();
+    for (int level = node.depth() - 1; level >= depth; level--) {
+      hash =
+          bit(node.key(), level) == 0
+              ? combineHash(hash, DEFAULT_HASHES[level + 1])
+              : combineHash(DEFAULT_HASHES[level + 1], hash);
+    }
+
+    return hash;
+  }
+
+  private sealed interface Node<T> permits Leaf, Branch {
+
+    /** Key of the leaf, or any key below the branch, which agree up to its depth. */
+    byte[] key();
+
+    /** Depth of the root of this subtree, DEPTH for leaves. */
+    int depth();
+
+    /** Hash of this subtree at its depth. */
+    byte[] hash();
+  }
+
+  private record Leaf<T>(byte[] key, T item) implements Node<T> {
+
+    @Override
+    public int depth() {
+      return DEPTH;
+    }
+
+    @Override
+    public byte[] hash() {
+      return key;
+    }
+  }
+
+  /**
+   * Node with both subtrees non-empty. Hashes of its subtrees lifted to depth + 1 are kept, so a
+   * change below one of them only lifts that one again.
+   */
+  private record Branch<T>(
+      int depth,
+      byte[] key,
+      Node<T> left,
+      Node<T> right,
+      byte[] leftHash,
+      byte[] rightHash,
+      byte[] hash)
+      implements Node<T> {
+
+    static <T> Branch<T> of(int depth, Node<T> left, Node<T> right) {
+      return of(depth, left, right, lift(left, depth + 1), lift(right, depth + 1));
+    }
+
+    private static <T> Branch<T> of(
+        int depth, Node<T> left, Node<T> right, byte[] leftHash, byte[] rightHash) {
+      return new Branch<>(
+          depth, left.key(), left, right, leftHash, rightHash, combineHash(leftHash, rightHash));
+    }
+
+    Branch<T> withLeft(Node<T> left) {
+      return of(depth, left, right, lift(left, depth + 1), rightHash);
+    }
+
+    Branch<T> withRight(Node<T> right) {
+      return of(depth, left, right, leftHash, lift(right, depth + 1));
+    }
+  }
+}
@@ -0,0 +1,187 @@
+package org.cardanofoundation.merkle;
+
+import static org.cardanofoundation.util.Hashing.combineHash;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import lombok.val;
+
+/**
+ * Computes the root hash of a Merkle Tree from items arriving one at a time, without keeping the
+ * items or the tree in memory. The total number of items has to be known up front, as it determines
+ * the shape of the tree; only one pending hash per tree level (<code>O(log n)</code>) is kept.
+ * Resulting root hash is identical to {@link MerkleTree#fromList} for the same items.
+ *
+ * <p>Use {@link #rootHash(Iterable, Function)} when the count is not known, it iterates the input
+ * twice (count first, hash second).
+ *
+ * @param <T> - user defined type backing this Merkle Tree
+ */
+public final class StreamingMerkleBuilder<T> implements Consumer<T> {
+
+  private final long size;
+
+  private final Function<T, byte[]> serialiserFn;
+
+  /** Subtrees whose left child is being built or already hashed, innermost first. */
+  private final ArrayDeque<Frame> pending = new ArrayDeque<>();
+
+  private long accepted;
+
+  private byte[] rootHash;
+
+  private StreamingMerkleBuilder(long size, Function<T, byte[]> serialiserFn) {
+    this.size = size;
+    this.serialiserFn = serialiserFn;
+    this.rootHash = size == 0 ? new byte[0] : null;
+  }
+
+  /**
+   * Creates a builder expecting exactly <code>size</code> items.
+   *
+   * @param size - total number of items
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return - builder accepting items in tree order
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> StreamingMerkleBuilder<T> create(long size, Function<T, byte[]> serialiserFn) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Size must not be negative.");
+    }
+
+    return new StreamingMerkleBuilder<>(size, serialiserFn);
+  }
+
+  /**
+   * Computes root hash of items provided by an iterator.
+   *
+   * @param items - items in tree order, exactly <code>size</code> of them
+   * @param size - total number of items
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return - Merkle Tree root hash
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> byte[] rootHash(
+      Iterator<T> items, long size, Function<T, byte[]> serialiserFn) {
+    val builder = StreamingMerkleBuilder.create(size, serialiserFn);
+    items.forEachRemaining(builder);
+
+    return builder.rootHash();
+  }
+
+  /**
+   * Computes root hash of items provided by a stream, the stream is consumed in encounter order.
+   *
+   * @param items - items in tree order, exactly <code>size</code> of them
+   * @param size - total number of items
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return - Merkle Tree root hash
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> byte[] rootHash(Stream<T> items, long size, Function<T, byte[]> serialiserFn) {
+    val builder = StreamingMerkleBuilder.create(size, serialiserFn);
+    items.forEachOrdered(builder);
+
+    return builder.rootHash();
+  }
+
+  /**
+   * Computes root hash of items in two passes, the first one counts the items.
+   *
+   * @param items - items in tree order, iterated twice
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return - Merkle Tree root hash
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> byte[] rootHash(Iterable<T> items, Function<T, byte[]> serialiserFn) {
+    long size = 0;
+    for (val ignored : items) {
+      size++;
+    }
+
+    return rootHash(items.iterator(), size, serialiserFn);
+  }
+
+  /**
+   * Adds the next item of the tree.
+   *
+   * @param item - user defined item
+   * @throws IllegalStateException when all expected items have already been added
+   */
+  @Override
+  public void accept(T item) {
+    if (accepted == size) {
+      throw new IllegalStateException("All " + size + " items have already been accepted.");
+    }
+
+    // descend from the innermost pending subtree to the leaf position of this item
+    var subtree = size;
+    if (!pending.isEmpty()) {
+      val top = pending.peek();
+      subtree = top.left == null ? top.size / 2 : top.size - top.size / 2;
+    }
+    while (subtree > 1) {
+      pending.push(new Frame(subtree));
+      subtree = subtree / 2;
+    }
+
+    // fold completed subtrees back up
+    var hash = MerkleTree.leafHash(item, serialiserFn);
+    accepted++;
+
+    while (!pending.isEmpty()) {
+      val top = pending.peek();
+      if (top.left == null) {
+        top.left = hash;
+        return;
+      }
+
+      hash = combineHash(top.left, hash);
+      pending.pop();
+    }
+
+    rootHash = hash;
+  }
+
+  /** Returns number of items accepted so far. */
+  public long accepted() {
+    return accepted;
+  }
+
+  /** Returns true once all expected items have been accepted. */
+  public boolean isComplete() {
+    return accepted == size;
+  }
+
+  /**
+   * Returns root hash of the tree, an empty array for an empty tree.
+   *
+   * @throws IllegalStateException when not all expected items have been accepted
+   */
+  public byte[] rootHash() {
+    if (!isComplete()) {
+      throw new IllegalStateException(
+          "Expected " + size + " items, but only " + accepted + " have been accepted.");
+    }
+
+    return rootHash;
+  }
+
+  private static final class Frame {
+
+    private final long size;
+
+    private byte[] left;
+
+    private Frame(long size) {
+      this.size = size;
+    }
+  }
+}
@@ -0,0 +1,195 @@
+package org.cardanofoundation.merkle;
+
+import io.vavr.collection.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.function.Function;
+import lombok.val;
+
+/**
+ * Merkle Tree with a history of versions (e.g. one per block), for answering proofs against recent
+ * roots and rolling back without replaying changes. Versions are persistent trees: a new version is
+ * derived from the latest one with {@link MerkleTree#applyBatch}, which reuses every unchanged
+ * subtree by reference, so a version costs memory proportional to its change set. Rolling back only
+ * drops roots of newer versions.
+ *
+ * <p>Only the last <code>retention</code> versions are kept, older ones are evicted on commit. When
+ * created with a {@link MerkleNodeStore}, versions are interned and committed to the store as well,
+ * evicted versions are released and the store is pruned once every <code>retention</code> released
+ * versions.
+ *
+ * <p>Instances are not thread safe.
+ *
+ * @param <T> - user defined type backing this Merkle Tree
+ */
+public final class VersionedMerkleTree<T> {
+
+  private final Function<T, byte[]> serialiserFn;
+
+  private final int retention;
+
+  private final MerkleNodeStore<T> store;
+
+  private final NavigableMap<Long, MerkleElement<T>> roots = new TreeMap<>();
+
+  private int releasedSincePrune;
+
+  private VersionedMerkleTree(
+      Function<T, byte[]> serialiserFn, int retention, MerkleNodeStore<T> store) {
+    if (retention < 1) {
+      throw new IllegalArgumentException("Retention must be positive.");
+    }
+
+    this.serialiserFn = serialiserFn;
+    this.retention = retention;
+    this.store = store;
+  }
+
+  /**
+   * Creates a tree without any version.
+   *
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @param retention - number of most recent versions to keep
+   * @return - empty versioned tree
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> VersionedMerkleTree<T> create(Function<T, byte[]> serialiserFn, int retention) {
+    return new VersionedMerkleTree<>(serialiserFn, retention, null);
+  }
+
+  /**
+   * Creates a tree without any version, interning nodes of all versions in the store.
+   *
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @param retention - number of most recent versions to keep
+   * @param store - node store owned by this tree
+   * @return - empty versioned tree
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> VersionedMerkleTree<T> create(
+      Function<T, byte[]> serialiserFn, int retention, MerkleNodeStore<T> store) {
+    return new VersionedMerkleTree<>(serialiserFn, retention, store);
+  }
+
+  /**
+   * Records a tree as the given version, e.g. the initial one built by {@link MerkleTree#fromList}.
+   *
+   * @param version - version number, greater than the latest one
+   * @param root - Merkle Tree root of the version
+   * @return - root of the version
+   */
+  public MerkleElement<T> commit(long version, MerkleElement<T> root) {
+    if (!roots.isEmpty() && version <= roots.lastKey()) {
+      throw new IllegalArgumentException(
+          "Version "
+              + version
+              + " is not greater than the latest version "
+              + roots.lastKey()
+              + ".");
+    }
+
+    val committed = store == null ? root : store.commit(version, root);
+    roots.put(version, committed);
+
+    while (roots.size() > retention) {
+      release(roots.pollFirstEntry().getKey());
+    }
+
+    return committed;
+  }
+
+  /**
+   * Derives a new version from the latest one (an empty tree when there is none), see {@link
+   * MerkleTree#applyBatch}.
+   *
+   * @param version - version number, greater than the latest one
+   * @param adds - items to be appended
+   * @param removes - items to be removed
+   * @return - root of the new version
+   */
+  public MerkleElement<T> apply(long version, java.util.List<T> adds, java.util.List<T> removes) {
+    val latest = roots.isEmpty() ? MerkleEmpty.<T>create() : roots.lastEntry().getValue();
+
+    return commit(version, MerkleTree.applyBatch(latest, adds, removes, serialiserFn, store));
+  }
+
+  /**
+   * Makes the given version the latest one by dropping all newer versions, nothing is rehashed.
+   *
+   * @param version - retained version number
+   * @return - root of the version
+   * @throws IllegalArgumentException when the version is not retained
+   */
+  public MerkleElement<T> rollbackTo(long version) {
+    val root = roots.get(version);
+    if (root == null) {
+      throw new IllegalArgumentException("Version " + version + " is not retained.");
+    }
+
+    val newer = roots.tailMap(version, false);
+    for (val dropped : newer.keySet()) {
+      release(dropped);
+    }
+    newer.clear();
+
+    return root;
+  }
+
+  /** Returns the latest version number, empty when there is no version. */
+  public OptionalLong latestVersion() {
+    return roots.isEmpty() ? OptionalLong.empty() : OptionalLong.of(roots.lastKey());
+  }
+
+  /** Returns the oldest retained version number, empty when there is no version. */
+  public OptionalLong oldestVersion() {
+    return roots.isEmpty() ? OptionalLong.empty() : OptionalLong.of(roots.firstKey());
+  }
+
+  /** Returns root of the latest version, an empty tree when there is no version. */
+  public MerkleElement<T> root() {
+    return roots.isEmpty() ? MerkleEmpty.create() : roots.lastEntry().getValue();
+  }
+
+  /**
+   * Returns root of a retained version.
+   *
+   * @param version - version number
+   * @return - root of the version, empty when it is not retained
+   */
+  public Optional<MerkleElement<T>> root(long version) {
+    return Optional.ofNullable(roots.get(version));
+  }
+
+  /**
+   * Get a proof for an item against the root of a retained version.
+   *
+   * @param version - version number
+   * @param item - user defined item to be checked
+   * @return - Merkle Proof for this particular item, empty when the version is not retained or the
+   *     item is not part of it
+   */
+  public Optional<List<ProofItem>> proof(long version, T item) {
+    return root(version).flatMap(root -> MerkleTree.getProof(root, item, serialiserFn));
+  }
+
+  /** Returns number of retained versions. */
+  public int size() {
+    return roots.size();
+  }
+
+  private void release(long version) {
+    if (store == null) {
+      return;
+    }
+
+    store.release(version);
+    if (++releasedSincePrune >= retention) {
+      store.prune();
+      releasedSincePrune = 0;
+    }
+  }
+}
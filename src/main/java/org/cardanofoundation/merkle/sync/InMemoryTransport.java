@@ -0,0 +1,55 @@
+package org.cardanofoundation.merkle.sync;
+
+import lombok.val;
+
+/**
+ * Transport delivering requests directly to a server in the same process, counting what would be
+ * sent over the wire. Meant for tests and for measuring how much a reconciliation transfers.
+ *
+ * @param <T> - user defined type backing this Merkle Tree
+ */
+public final class InMemoryTransport<T> implements SyncTransport<T> {
+
+  private final SyncServer<T> server;
+
+  private long requests;
+
+  private long hashes;
+
+  private long items;
+
+  public InMemoryTransport(SyncServer<T> server) {
+    this.server = server;
+  }
+
+  @Override
+  public synchronized SyncResponse<T> send(SyncRequest request) {
+    val response = server.handle(request);
+    requests++;
+
+    if (response instanceof SyncResponse.Root<T>) {
+      hashes++;
+    } else if (response instanceof SyncResponse.NodeHashes<T> nodeHashes) {
+      hashes += nodeHashes.nodes().size();
+    } else if (response instanceof SyncResponse.Leaves<T> leaves) {
+      items += leaves.items().size();
+    }
+
+    return response;
+  }
+
+  /** Returns number of requests sent so far. */
+  public synchronized long requests() {
+    return requests;
+  }
+
+  /** Returns number of hashes received so far. */
+  public synchronized long hashes() {
+    return hashes;
+  }
+
+  /** Returns number of items received so far. */
+  public synchronized long items() {
+    return items;
+  }
+}
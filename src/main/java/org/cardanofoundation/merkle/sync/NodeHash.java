@@ -0,0 +1,28 @@
+package org.cardanofoundation.merkle.sync;
+
+import java.util.HexFormat;
+
+/**
+ * Hash of a node together with the range of leaf positions it covers.
+ *
+ * @param id - position of the node
+ * @param start - position of the first leaf below the node
+ * @param size - number of leaves below the node
+ * @param hash - node hash
+ */
+public record NodeHash(NodeId id, int start, int size, byte[] hash) {
+
+  @Override
+  public String toString() {
+    return "NodeHash{"
+        + "id="
+        + id
+        + ", start="
+        + start
+        + ", size="
+        + size
+        + ", hash=0x"
+        + HexFormat.of().formatHex(hash)
+        + '}';
+  }
+}
@@ -0,0 +1,36 @@
+package org.cardanofoundation.merkle.sync;
+
+/**
+ * Position of a node in a Merkle Tree: its depth and the path from the root, one bit per level (
+ * <code>0</code> left, <code>1</code> right), the first step being the most significant bit. The
+ * root is <code>(0, 0)</code>.
+ *
+ * @param depth - number of steps from the root
+ * @param path - steps from the root
+ */
+public record NodeId(int depth, long path) {
+
+  public static final NodeId ROOT = new NodeId(0, 0);
+
+  public NodeId {
+    if (depth < 0 || depth > 62) {
+      throw new IllegalArgumentException("Unsupported depth: " + depth);
+    }
+    if (path < 0 || path >= 1L << depth) {
+      throw new IllegalArgumentException("Path " + path + " out of range for depth " + depth);
+    }
+  }
+
+  public NodeId left() {
+    return new NodeId(depth + 1, path << 1);
+  }
+
+  public NodeId right() {
+    return new NodeId(depth + 1, (path << 1) | 1);
+  }
+
+  /** Returns true when the step at the given level (zero for the first one) goes right. */
+  boolean goesRight(int level) {
+    return ((path >>> (depth - 1 - level)) & 1) == 1;
+  }
+}
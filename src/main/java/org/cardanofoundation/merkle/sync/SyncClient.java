@@ -0,0 +1,218 @@
+package org.cardanofoundation.merkle.sync;
+
+import static org.cardanofoundation.util.Hashing.combineHash;
+
+import io.vavr.collection.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.val;
+import org.cardanofoundation.merkle.MerkleElement;
+import org.cardanofoundation.merkle.MerkleEmpty;
+import org.cardanofoundation.merkle.MerkleNode;
+import org.cardanofoundation.merkle.MerkleTree;
+
+/**
+ * Replicates a remote tree by fetching only the parts which differ from a local copy. The remote
+ * tree is explored one level at a time: a node covering the same leaf positions as a local subtree
+ * with the same hash is reused, a small mismatching node is fetched as items, and any other node is
+ * expanded into its children in the next round. Transferred hashes and items therefore scale with
+ * the number of differences rather than with the size of the tree.
+ *
+ * <p>Fetched items are hashed locally and the whole result is checked against the remote root hash,
+ * so a misbehaving peer can not make the client accept a different tree. Both trees are expected to
+ * have been built by {@link MerkleTree#fromList} (or to follow the same shape).
+ *
+ * @param <T> - user defined type backing this Merkle Tree
+ */
+public final class SyncClient<T> {
+
+  /** Default size of subtrees fetched as items instead of being expanded further. */
+  public static final int DEFAULT_LEAF_BATCH_SIZE = 16;
+
+  private final SyncTransport<T> transport;
+
+  private final Function<T, byte[]> serialiserFn;
+
+  private final int leafBatchSize;
+
+  private SyncClient(
+      SyncTransport<T> transport, Function<T, byte[]> serialiserFn, int leafBatchSize) {
+    this.transport = transport;
+    this.serialiserFn = serialiserFn;
+    this.leafBatchSize = leafBatchSize;
+  }
+
+  /**
+   * Creates a client fetching subtrees of at most {@link #DEFAULT_LEAF_BATCH_SIZE} leaves as items.
+   *
+   * @param transport - transport to the remote server
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @return - client
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> SyncClient<T> create(
+      SyncTransport<T> transport, Function<T, byte[]> serialiserFn) {
+    return create(transport, serialiserFn, DEFAULT_LEAF_BATCH_SIZE);
+  }
+
+  /**
+   * Creates a client.
+   *
+   * @param transport - transport to the remote server
+   * @param serialiserFn - function to serialise a user defined item into a byte-array (should not
+   *     apply sha2_256 hashing)
+   * @param leafBatchSize - mismatching subtrees with at most this many leaves are fetched as items,
+   *     larger ones are expanded into their children
+   * @return - client
+   * @param <T> - user defined type backing this Merkle Tree
+   */
+  public static <T> SyncClient<T> create(
+      SyncTransport<T> transport, Function<T, byte[]> serialiserFn, int leafBatchSize) {
+    if (leafBatchSize < 1) {
+      throw new IllegalArgumentException("Leaf batch size must be positive.");
+    }
+
+    return new SyncClient<>(transport, serialiserFn, leafBatchSize);
+  }
+
+  /**
+   * Returns a copy of the remote tree, sharing all matching subtrees with the local one.
+   *
+   * @param local - local version of the tree, may be empty
+   * @return - tree identical to the remote one
+   * @throws IllegalStateException when the remote responses are inconsistent with its root hash
+   */
+  public MerkleElement<T> reconcile(MerkleElement<T> local) {
+    SyncResponse.Root<T> root = expect(SyncResponse.Root.class, new SyncRequest.Root());
+    if (root.size() == 0) {
+      return MerkleEmpty.create();
+    }
+    if (local.size() == root.size() && Arrays.equals(local.itemHash(), root.hash())) {
+      return local;
+    }
+
+    val resolved = new HashMap<NodeId, MerkleElement<T>>();
+    var frontier = List.of(new NodeHash(NodeId.ROOT, 0, root.size(), root.hash()));
+
+    while (!frontier.isEmpty()) {
+      val expand = new ArrayList<NodeHash>();
+
+      for (val node : frontier) {
+        val reused = findLocal(local, node.start(), node.size());
+
+        if (reused != null && Arrays.equals(reused.itemHash(), node.hash())) {
+          resolved.put(node.id(), reused);
+        } else if (node.size() <= leafBatchSize) {
+          resolved.put(node.id(), fetch(node));
+        } else {
+          expand.add(node);
+        }
+      }
+
+      frontier = children(expand);
+    }
+
+    val result = assemble(NodeId.ROOT, resolved);
+    if (!Arrays.equals(result.itemHash(), root.hash())) {
+      throw new IllegalStateException("Remote tree does not match its root hash.");
+    }
+
+    return result;
+  }
+
+  /** Requests children of the given nodes, one request per run of adjacent nodes. */
+  private List<NodeHash> children(java.util.List<NodeHash> parents) {
+    var children = List.<NodeHash>empty();
+
+    var i = 0;
+    while (i < parents.size()) {
+      var j = i;
+      while (j + 1 < parents.size()
+          && parents.get(j + 1).id().path() == parents.get(j).id().path() + 1) {
+        j++;
+      }
+
+      val depth = parents.get(i).id().depth() + 1;
+      val request =
+          new SyncRequest.NodeHashes(
+              depth, parents.get(i).id().path() << 1, (parents.get(j).id().path() << 1) | 1);
+      SyncResponse.NodeHashes<T> response = expect(SyncResponse.NodeHashes.class, request);
+
+      if (response.nodes().size() != 2 * (j - i + 1)) {
+        throw new IllegalStateException("Unexpected number of nodes for " + request);
+      }
+      children = children.appendAll(response.nodes());
+
+      i = j + 1;
+    }
+
+    return children;
+  }
+
+  private MerkleElement<T> fetch(NodeHash node) {
+    SyncResponse.Leaves<T> leaves =
+        expect(SyncResponse.Leaves.class, new SyncRequest.Leaves(node.id()));
+
+    if (leaves.items().size() != node.size()) {
+      throw new IllegalStateException("Unexpected number of items for " + node);
+    }
+
+    val subtree = MerkleTree.fromList(leaves.items(), serialiserFn);
+    if (!Arrays.equals(subtree.itemHash(), node.hash())) {
+      throw new IllegalStateException("Items do not match hash of " + node);
+    }
+
+    return subtree;
+  }
+
+  private MerkleElement<T> assemble(NodeId id, Map<NodeId, MerkleElement<T>> resolved) {
+    val element = resolved.get(id);
+    if (element != null) {
+      return element;
+    }
+
+    val left = assemble(id.left(), resolved);
+    val right = assemble(id.right(), resolved);
+
+    return new MerkleNode<>(combineHash(left.itemHash(), right.itemHash()), left, right);
+  }
+
+  /** Returns a local subtree covering exactly the given leaf positions, or null. */
+  private static <T> MerkleElement<T> findLocal(MerkleElement<T> local, int start, int size) {
+    var element = local;
+    var elementStart = 0;
+
+    while (true) {
+      if (elementStart == start && element.size() == size) {
+        return element;
+      }
+      if (!(element instanceof MerkleNode<T> mn)) {
+        return null;
+      }
+
+      val middle = elementStart + mn.getLeft().size();
+      if (start + size <= middle) {
+        element = mn.getLeft();
+      } else if (start >= middle) {
+        element = mn.getRight();
+        elementStart = middle;
+      } else {
+        return null;
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private <R extends SyncResponse<T>> R expect(Class<?> type, SyncRequest request) {
+    val response = transport.send(request);
+    if (!type.isInstance(response)) {
+      throw new IllegalStateException("Unexpected response " + response + " to " + request);
+    }
+
+    return (R) response;
+  }
+}
@@ -0,0 +1,27 @@
+package org.cardanofoundation.merkle.sync;
+
+/** Requests understood by {@link SyncServer}. */
+public sealed interface SyncRequest
+    permits SyncRequest.Root, SyncRequest.NodeHashes, SyncRequest.Leaves {
+
+  /** Asks for the number of leaves and the root hash, answered by {@link SyncResponse.Root}. */
+  record Root() implements SyncRequest {}
+
+  /**
+   * Asks for hashes of all nodes at the given depth whose paths are within <code>
+   * [fromPath, toPath]</code>, answered by {@link SyncResponse.NodeHashes}. Branches ending in a
+   * leaf above the depth have no nodes there.
+   *
+   * @param depth - depth of requested nodes
+   * @param fromPath - first path (inclusive)
+   * @param toPath - last path (inclusive)
+   */
+  record NodeHashes(int depth, long fromPath, long toPath) implements SyncRequest {}
+
+  /**
+   * Asks for all items below a node, answered by {@link SyncResponse.Leaves}.
+   *
+   * @param node - subtree root
+   */
+  record Leaves(NodeId node) implements SyncRequest {}
+}
@@ -0,0 +1,37 @@
+package org.cardanofoundation.merkle.sync;
+
+import io.vavr.collection.List;
+import java.util.HexFormat;
+
+/**
+ * Responses sent by {@link SyncServer}.
+ *
+ * @param <T> - user defined type backing this Merkle Tree
+ */
+public sealed interface SyncResponse<T>
+    permits SyncResponse.Root, SyncResponse.NodeHashes, SyncResponse.Leaves {
+
+  /**
+   * @param size - number of leaves
+   * @param hash - root hash, an empty array for an empty tree
+   */
+  record Root<T>(int size, byte[] hash) implements SyncResponse<T> {
+
+    @Override
+    public String toString() {
+      return "Root{" + "size=" + size + ", hash=0x" + HexFormat.of().formatHex(hash) + '}';
+    }
+  }
+
+  /**
+   * @param nodes - nodes ordered by path
+   */
+  record NodeHashes<T>(List<NodeHash> nodes) implements SyncResponse<T> {}
+
+  /**
+   * @param node - subtree root
+   * @param start - position of the first item
+   * @param items - items below the node, in tree order
+   */
+  record Leaves<T>(NodeId node, int start, List<T> items) implements SyncResponse<T> {}
+}
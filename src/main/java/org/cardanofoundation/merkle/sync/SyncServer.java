@@ -0,0 +1,95 @@
+package org.cardanofoundation.merkle.sync;
+
+import io.vavr.collection.List;
+import java.util.ArrayList;
+import lombok.val;
+import org.cardanofoundation.merkle.MerkleElement;
+import org.cardanofoundation.merkle.MerkleNode;
+import org.cardanofoundation.merkle.MerkleTree;
+
+/**
+ * Answers {@link SyncRequest}s of peers replicating a tree. Nodes are located by walking from the
+ * root, subtree sizes are taken from the nodes, so every request costs the depth of the tree plus
+ * the size of the response.
+ *
+ * @param <T> - user defined type backing this Merkle Tree
+ */
+public final class SyncServer<T> {
+
+  private final MerkleElement<T> root;
+
+  public SyncServer(MerkleElement<T> root) {
+    this.root = root;
+  }
+
+  public SyncResponse<T> handle(SyncRequest request) {
+    if (request instanceof SyncRequest.Root) {
+      return new SyncResponse.Root<>(root.size(), root.itemHash());
+    }
+    if (request instanceof SyncRequest.NodeHashes nodeHashes) {
+      return new SyncResponse.NodeHashes<>(nodeHashes(nodeHashes));
+    }
+    if (request instanceof SyncRequest.Leaves leaves) {
+      return leaves(leaves.node());
+    }
+
+    throw new IllegalStateException("Unexpected value.");
+  }
+
+  private List<NodeHash> nodeHashes(SyncRequest.NodeHashes request) {
+    if (request.depth() < 0 || request.depth() > 62 || request.fromPath() > request.toPath()) {
+      throw new IllegalArgumentException("Invalid node range: " + request);
+    }
+
+    val nodes = new ArrayList<NodeHash>();
+    if (!root.isEmpty()) {
+      collect(root, NodeId.ROOT, 0, request, nodes);
+    }
+
+    return List.ofAll(nodes);
+  }
+
+  private static <T> void collect(
+      MerkleElement<T> element,
+      NodeId id,
+      int start,
+      SyncRequest.NodeHashes request,
+      java.util.List<NodeHash> nodes) {
+    // paths at the requested depth below this node
+    val shift = request.depth() - id.depth();
+    val first = id.path() << shift;
+    val last = first + (1L << shift) - 1;
+    if (last < request.fromPath() || first > request.toPath()) {
+      return;
+    }
+
+    if (shift == 0) {
+      nodes.add(new NodeHash(id, start, element.size(), element.itemHash()));
+      return;
+    }
+    if (element instanceof MerkleNode<T> mn) {
+      collect(mn.getLeft(), id.left(), start, request, nodes);
+      collect(mn.getRight(), id.right(), start + mn.getLeft().size(), request, nodes);
+    }
+  }
+
+  private SyncResponse<T> leaves(NodeId node) {
+    var element = root;
+    var start = 0;
+
+    for (int level = 0; level < node.depth(); level++) {
+      if (!(element instanceof MerkleNode<T> mn)) {
+        throw new IllegalArgumentException("No such node: " + node);
+      }
+
+      if (node.goesRight(level)) {
+        start += mn.getLeft().size();
+        element = mn.getRight();
+      } else {
+        element = mn.getLeft();
+      }
+    }
+
+    return new SyncResponse.Leaves<>(node, start, MerkleTree.toList(element));
+  }
+}
@@ -0,0 +1,13 @@
+package org.cardanofoundation.merkle.sync;
+
+/**
+ * Delivers requests to a remote {@link SyncServer} and returns its responses. Implementations are
+ * responsible for encoding requests, responses and items on the wire.
+ *
+ * @param <T> - user defined type backing this Merkle Tree
+ */
+@FunctionalInterface
+public interface SyncTransport<T> {
+
+  SyncResponse<T> send(SyncRequest request);
+}
@@ -0,0 +1,435 @@
+package org.cardanofoundation.trie;
+
+import static org.cardanofoundation.util.Hashing.sha2_256;
+
+import io.vavr.collection.List;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import lombok.val;
+
+/**
+ * Authenticated key/value map in the style of Merkle Patricia Forestry: a radix 16 trie over the
+ * paths of keys (sha2_256 of the serialised key, 64 nibbles), whose branches hash their 16 children
+ * with a small binary Merkle Tree. Chains of single children are compressed into a branch prefix,
+ * so the trie is <code>O(log16 n)</code> deep and insert, delete and proofs touch only the branches
+ * on one path. Hashing rules are the same as of the on-chain verifier in <code>
+ * cf/tries/mpf.ak</code>, see {@link TrieHashing}.
+ *
+ * <p>A {@link TrieProof} for a key proves both membership and non-membership: verify it with {@link
+ * #verifyMembership} / {@link #verifyNonMembership} or on-chain with <code>has</code> / <code>miss
+ * </code>.
+ *
+ * <p>Instances are immutable, every change returns a new trie sharing unchanged branches with the
+ * old one.
+ *
+ * @param <K> - user defined key type
+ * @param <V> - user defined value type
+ */
+public final class MerklePatriciaTrie<K, V> {
+
+  private final Function<K, byte[]> keySerialiserFn;
+
+  private final Function<V, byte[]> valueSerialiserFn;
+
+  private final Node<K, V> root;
+
+  private final int size;
+
+  private MerklePatriciaTrie(
+      Function<K, byte[]> keySerialiserFn,
+      Function<V, byte[]> valueSerialiserFn,
+      Node<K, V> root,
+      int size) {
+    this.keySerialiserFn = keySerialiserFn;
+    this.valueSerialiserFn = valueSerialiserFn;
+    this.root = root;
+    this.size = size;
+  }
+
+  /**
+   * Creates an empty trie.
+   *
+   * @param keySerialiserFn - function to serialise a key into a byte-array (should not apply
+   *     sha2_256 hashing)
+   * @param valueSerialiserFn - function to serialise a value into a byte-array (should not apply
+   *     sha2_256 hashing)
+   * @return - empty trie
+   * @param <K> - user defined key type
+   * @param <V> - user defined value type
+   */
+  public static <K, V> MerklePatriciaTrie<K, V> empty(
+      Function<K, byte[]> keySerialiserFn, Function<V, byte[]> valueSerialiserFn) {
+    return new MerklePatriciaTrie<>(keySerialiserFn, valueSerialiserFn, null, 0);
+  }
+
+  /**
+   * Creates a trie holding all entries of a map.
+   *
+   * @param entries - keys and values
+   * @param keySerialiserFn - function to serialise a key into a byte-array (should not apply
+   *     sha2_256 hashing)
+   * @param valueSerialiserFn - function to serialise a value into a byte-array (should not apply
+   *     sha2_256 hashing)
+   * @return - trie
+   * @param <K> - user defined key type
+   * @param <V> - user defined value type
+   */
+  public static <K, V> MerklePatriciaTrie<K, V> fromMap(
+      Map<K, V> entries,
+      Function<K, byte[]> keySerialiserFn,
+      Function<V, byte[]> valueSerialiserFn) {
+    var trie = MerklePatriciaTrie.<K, V>empty(keySerialiserFn, valueSerialiserFn);
+    for (val entry : entries.entrySet()) {
+      trie = trie.insert(entry.getKey(), entry.getValue());
+    }
+
+    return trie;
+  }
+
+  /** Returns root hash of the trie, 32 zero bytes when empty. */
+  public byte[] rootHash() {
+    return root == null ? TrieHashing.NULL_HASH.clone() : root.hash().clone();
+  }
+
+  /** Returns number of keys. */
+  public int size() {
+    return size;
+  }
+
+  /** Returns true when the trie has no keys. */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns the value stored under a key.
+   *
+   * @param key - user defined key
+   * @return - value, empty when the key is not in the trie
+   */
+  public Optional<V> get(K key) {
+    return find(path(key)).map(LeafNode::value);
+  }
+
+  /**
+   * Checks whether a key is in the trie.
+   *
+   * @param key - user defined key
+   * @return - true when the key is in the trie
+   */
+  public boolean contains(K key) {
+    return find(path(key)).isPresent();
+  }
+
+  private Optional<LeafNode<K, V>> find(byte[] path) {
+    var node = root;
+    var cursor = 0;
+
+    while (node instanceof BranchNode<K, V> branch) {
+      if (commonPrefix(branch.prefix(), path, cursor) < branch.prefix().length) {
+        return Optional.empty();
+      }
+      cursor += branch.prefix().length;
+      node = branch.children()[TrieHashing.nibble(path, cursor)];
+      cursor++;
+    }
+
+    return node instanceof LeafNode<K, V> leaf && Arrays.equals(leaf.path(), path)
+        ? Optional.of(leaf)
+        : Optional.empty();
+  }
+
+  /**
+   * Sets the value of a key.
+   *
+   * @param key - user defined key
+   * @param value - user defined value
+   * @return - new trie, sharing unchanged branches with this one
+   */
+  public MerklePatriciaTrie<K, V> insert(K key, V value) {
+    val path = path(key);
+    val leaf = new LeafNode<>(path, key, value, sha2_256(valueSerialiserFn.apply(value)), 0);
+    val replaced = find(path).isPresent();
+
+    return new MerklePatriciaTrie<>(
+        keySerialiserFn, valueSerialiserFn, insert(root, 0, leaf), replaced ? size : size + 1);
+  }
+
+  private static <K, V> Node<K, V> insert(Node<K, V> node, int cursor, LeafNode<K, V> leaf) {
+    if (node == null) {
+      return leaf.at(cursor);
+    }
+
+    if (node instanceof LeafNode<K, V> other) {
+      if (Arrays.equals(other.path(), leaf.path())) {
+        return leaf.at(cursor);
+      }
+
+      // both leaves go below a new branch at the first nibble they differ in
+      var split = cursor;
+      while (TrieHashing.nibble(other.path(), split) == TrieHashing.nibble(leaf.path(), split)) {
+        split++;
+      }
+
+      val children = BranchNode.<K, V>noChildren();
+      children[TrieHashing.nibble(other.path(), split)] = other.at(split + 1);
+      children[TrieHashing.nibble(leaf.path(), split)] = leaf.at(split + 1);
+
+      return BranchNode.of(TrieHashing.nibbles(leaf.path(), cursor, split), children);
+    }
+
+    val branch = (BranchNode<K, V>) node;
+    val prefix = branch.prefix();
+    val common = commonPrefix(prefix, leaf.path(), cursor);
+
+    if (common < prefix.length) {
+      // the leaf leaves the prefix, which is split by a new branch above the old one
+      val children = BranchNode.<K, V>noChildren();
+      children[prefix[common]] =
+          BranchNode.of(Arrays.copyOfRange(prefix, common + 1, prefix.length), branch.children());
+      children[TrieHashing.nibble(leaf.path(), cursor + common)] = leaf.at(cursor + common + 1);
+
+      return BranchNode.of(Arrays.copyOf(prefix, common), children);
+    }
+
+    val slot = TrieHashing.nibble(leaf.path(), cursor + prefix.length);
+    val children = branch.children().clone();
+    children[slot] = insert(children[slot], cursor + prefix.length + 1, leaf);
+
+    return BranchNode.of(prefix, children);
+  }
+
+  /**
+   * Removes a key.
+   *
+   * @param key - user defined key
+   * @return - new trie, or this trie when the key is not in it
+   */
+  public MerklePatriciaTrie<K, V> delete(K key) {
+    val path = path(key);
+    if (find(path).isEmpty()) {
+      return this;
+    }
+
+    return new MerklePatriciaTrie<>(
+        keySerialiserFn, valueSerialiserFn, delete(root, 0, path), size - 1);
+  }
+
+  private static <K, V> Node<K, V> delete(Node<K, V> node, int cursor, byte[] path) {
+    if (node instanceof LeafNode<K, V>) {
+      return null;
+    }
+
+    val branch = (BranchNode<K, V>) node;
+    val prefix = branch.prefix();
+    val slot = TrieHashing.nibble(path, cursor + prefix.length);
+    val children = branch.children().clone();
+    children[slot] = delete(children[slot], cursor + prefix.length + 1, path);
+
+    var remaining = -1;
+    for (int i = 0; i < children.length; i++) {
+      if (children[i] != null) {
+        if (remaining >= 0) {
+          return BranchNode.of(prefix, children);
+        }
+        remaining = i;
+      }
+    }
+
+    // a single child is left, it takes the place of the branch
+    val child = children[remaining];
+    if (child instanceof LeafNode<K, V> leaf) {
+      return leaf.at(cursor);
+    }
+
+    val grandchild = (BranchNode<K, V>) child;
+    val extended = new byte[prefix.length + 1 + grandchild.prefix().length];
+    System.arraycopy(prefix, 0, extended, 0, prefix.length);
+    extended[prefix.length] = (byte) remaining;
+    System.arraycopy(
+        grandchild.prefix(), 0, extended, prefix.length + 1, grandchild.prefix().length);
+
+    return BranchNode.of(extended, grandchild.children());
+  }
+
+  /** Returns entries of the trie in the order of key paths. */
+  public List<Map.Entry<K, V>> toList() {
+    val entries = new java.util.ArrayList<Map.Entry<K, V>>(size);
+    collect(root, entries);
+
+    return List.ofAll(entries);
+  }
+
+  private static <K, V> void collect(Node<K, V> node, java.util.List<Map.Entry<K, V>> entries) {
+    if (node instanceof LeafNode<K, V> leaf) {
+      entries.add(Map.entry(leaf.key(), leaf.value()));
+    } else if (node instanceof BranchNode<K, V> branch) {
+      for (val child : branch.children()) {
+        collect(child, entries);
+      }
+    }
+  }
+
+  /**
+   * Get a proof for a key, valid for membership when the key is in the trie and for non-membership
+   * otherwise.
+   *
+   * @param key - user defined key
+   * @return - proof, the steps of the key's path in the trie containing the key
+   */
+  public TrieProof getProof(K key) {
+    val path = path(key);
+
+    // an absent key is proven at the position it would be inserted at
+    var node =
+        find(path).isPresent()
+            ? root
+            : insert(root, 0, new LeafNode<K, V>(path, null, null, TrieHashing.NULL_HASH, 0));
+    var cursor = 0;
+    var steps = List.<ProofStep>empty();
+
+    while (node instanceof BranchNode<K, V> branch) {
+      val skip = branch.prefix().length;
+      val slot = TrieHashing.nibble(path, cursor + skip);
+      val children = branch.children();
+
+      var others = 0;
+      var other = -1;
+      for (int i = 0; i < children.length; i++) {
+        if (i != slot && children[i] != null) {
+          others++;
+          other = i;
+        }
+      }
+
+      if (others > 1) {
+        steps =
+            steps.append(
+                new ProofStep.Branch(
+                    skip, TrieHashing.merkle16Neighbors(branch.childHashes(), slot)));
+      } else if (children[other] instanceof LeafNode<K, V> leaf) {
+        steps =
+            steps.append(new ProofStep.Leaf(skip, leaf.path().clone(), leaf.valueHash().clone()));
+      } else {
+        val neighbor = (BranchNode<K, V>) children[other];
+        steps =
+            steps.append(
+                new ProofStep.Fork(
+                    skip,
+                    new ProofStep.Neighbor(
+                        other, neighbor.prefix().clone(), neighbor.merkleRoot().clone())));
+      }
+
+      cursor += skip + 1;
+      node = children[slot];
+    }
+
+    return new TrieProof(steps);
+  }
+
+  /**
+   * Verifies that a trie with the given root hash holds the value under the key.
+   *
+   * @param rootHash - trie root hash
+   * @param key - user defined key
+   * @param value - user defined value
+   * @param proof - proof for the key
+   * @param keySerialiserFn - function to serialise a key into a byte-array (should not apply
+   *     sha2_256 hashing)
+   * @param valueSerialiserFn - function to serialise a value into a byte-array (should not apply
+   *     sha2_256 hashing)
+   * @return <code>true</code> when the proof is valid, <code>false</code> otherwise
+   * @param <K> - user defined key type
+   * @param <V> - user defined value type
+   */
+  public static <K, V> boolean verifyMembership(
+      byte[] rootHash,
+      K key,
+      V value,
+      TrieProof proof,
+      Function<K, byte[]> keySerialiserFn,
+      Function<V, byte[]> valueSerialiserFn) {
+    return proof.has(rootHash, keySerialiserFn.apply(key), valueSerialiserFn.apply(value));
+  }
+
+  /**
+   * Verifies that a trie with the given root hash does not hold the key.
+   *
+   * @param rootHash - trie root hash
+   * @param key - user defined key
+   * @param proof - proof for the key
+   * @param keySerialiserFn - function to serialise a key into a byte-array (should not apply
+   *     sha2_256 hashing)
+   * @return <code>true</code> when the proof is valid, <code>false</code> otherwise
+   * @param <K> - user defined key type
+   */
+  public static <K> boolean verifyNonMembership(
+      byte[] rootHash, K key, TrieProof proof, Function<K, byte[]> keySerialiserFn) {
+    return proof.miss(rootHash, keySerialiserFn.apply(key));
+  }
+
+  private byte[] path(K key) {
+    return sha2_256(keySerialiserFn.apply(key));
+  }
+
+  /** Returns number of leading prefix nibbles equal to nibbles of the path from the cursor. */
+  private static int commonPrefix(byte[] prefix, byte[] path, int cursor) {
+    var common = 0;
+    while (common < prefix.length && prefix[common] == TrieHashing.nibble(path, cursor + common)) {
+      common++;
+    }
+
+    return common;
+  }
+
+  private sealed interface Node<K, V> permits LeafNode, BranchNode {
+
+    byte[] hash();
+  }
+
+  /** Leaf of a key, its hash depends on the cursor (number of nibbles above it). */
+  private record LeafNode<K, V>(
+      byte[] path, K key, V value, byte[] valueHash, int cursor, byte[] hash)
+      implements Node<K, V> {
+
+    LeafNode(byte[] path, K key, V value, byte[] valueHash, int cursor) {
+      this(path, key, value, valueHash, cursor, TrieHashing.leafHash(path, cursor, valueHash));
+    }
+
+    LeafNode<K, V> at(int cursor) {
+      return cursor == this.cursor ? this : new LeafNode<>(path, key, value, valueHash, cursor);
+    }
+  }
+
+  /** Branch with at least two children, prefix nibbles are stored one per byte. */
+  private record BranchNode<K, V>(
+      byte[] prefix, Node<K, V>[] children, byte[] merkleRoot, byte[] hash) implements Node<K, V> {
+
+    static <K, V> BranchNode<K, V> of(byte[] prefix, Node<K, V>[] children) {
+      val merkleRoot = TrieHashing.merkle16(childHashes(children));
+
+      return new BranchNode<>(
+          prefix, children, merkleRoot, TrieHashing.branchHash(prefix, merkleRoot));
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> Node<K, V>[] noChildren() {
+      return (Node<K, V>[]) new Node[16];
+    }
+
+    byte[][] childHashes() {
+      return childHashes(children);
+    }
+
+    private static byte[][] childHashes(Node<?, ?>[] children) {
+      val hashes = new byte[16][];
+      for (int i = 0; i < 16; i++) {
+        hashes[i] = children[i] == null ? TrieHashing.NULL_HASH : children[i].hash();
+      }
+
+      return hashes;
+    }
+  }
+}
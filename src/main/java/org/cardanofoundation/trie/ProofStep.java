@@ -0,0 +1,116 @@
+package org.cardanofoundation.trie;
+
+import com.bloxbean.cardano.client.plutus.annotation.Constr;
+import com.bloxbean.cardano.client.plutus.spec.BigIntPlutusData;
+import com.bloxbean.cardano.client.plutus.spec.BytesPlutusData;
+import com.bloxbean.cardano.client.plutus.spec.ConstrPlutusData;
+import com.bloxbean.cardano.client.plutus.spec.PlutusData;
+import java.util.HexFormat;
+
+/**
+ * Step of a {@link TrieProof}, one per branch on the path from the root to a key. Every step starts
+ * with <code>skip</code>, the length of the branch prefix, and describes the other children of the
+ * branch in the most compact way that still allows the key to be removed.
+ */
+public sealed interface ProofStep {
+
+  /** Number of prefix nibbles of the branch. */
+  int skip();
+
+  /** Returns this step as Plutus data, matching <code>ProofStep</code> of the on-chain code. */
+  PlutusData toPlutusData();
+
+  /**
+   * Branch with at least two children besides the one on the path.
+   *
+   * @param skip - number of prefix nibbles of the branch
+   * @param neighbors - 4 x 32 bytes, siblings of the path in the Merkle Tree of the 16 children,
+   *     from the top level down
+   */
+  @Constr(alternative = 0)
+  record Branch(int skip, byte[] neighbors) implements ProofStep {
+
+    @Override
+    public PlutusData toPlutusData() {
+      return ConstrPlutusData.of(0, BigIntPlutusData.of(skip), BytesPlutusData.of(neighbors));
+    }
+
+    @Override
+    public String toString() {
+      return "Branch{skip=" + skip + ", neighbors=0x" + HexFormat.of().formatHex(neighbors) + '}';
+    }
+  }
+
+  /**
+   * Branch whose only other child is a branch.
+   *
+   * @param skip - number of prefix nibbles of the branch
+   * @param neighbor - the other child
+   */
+  @Constr(alternative = 1)
+  record Fork(int skip, Neighbor neighbor) implements ProofStep {
+
+    @Override
+    public PlutusData toPlutusData() {
+      return ConstrPlutusData.of(1, BigIntPlutusData.of(skip), neighbor.toPlutusData());
+    }
+  }
+
+  /**
+   * Branch whose only other child is a leaf.
+   *
+   * @param skip - number of prefix nibbles of the branch
+   * @param key - path of the other leaf (sha2_256 of its serialised key)
+   * @param value - sha2_256 of the serialised value of the other leaf
+   */
+  @Constr(alternative = 2)
+  record Leaf(int skip, byte[] key, byte[] value) implements ProofStep {
+
+    @Override
+    public PlutusData toPlutusData() {
+      return ConstrPlutusData.of(
+          2, BigIntPlutusData.of(skip), BytesPlutusData.of(key), BytesPlutusData.of(value));
+    }
+
+    @Override
+    public String toString() {
+      return "Leaf{skip="
+          + skip
+          + ", key=0x"
+          + HexFormat.of().formatHex(key)
+          + ", value=0x"
+          + HexFormat.of().formatHex(value)
+          + '}';
+    }
+  }
+
+  /**
+   * Branch child of a {@link Fork} step.
+   *
+   * @param nibble - position of the child in its parent
+   * @param prefix - prefix nibbles of the child, one byte per nibble
+   * @param root - root of the Merkle Tree of the 16 children of the child
+   */
+  @Constr(alternative = 0)
+  record Neighbor(int nibble, byte[] prefix, byte[] root) {
+
+    /**
+     * Returns this neighbor as Plutus data, matching <code>Neighbor</code> of the on-chain code.
+     */
+    public PlutusData toPlutusData() {
+      return ConstrPlutusData.of(
+          0, BigIntPlutusData.of(nibble), BytesPlutusData.of(prefix), BytesPlutusData.of(root));
+    }
+
+    @Override
+    public String toString() {
+      return "Neighbor{nibble="
+          + nibble
+          + ", prefix=0x"
+          + HexFormat.of().formatHex(prefix)
+          + ", root=0x"
+          + HexFormat.of().formatHex(root)
+          + '}';
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package org.cardanofoundation.trie;
+
+import static org.cardanofoundation.util.Hashing.combineHash;
+
+import lombok.val;
+
+/**
+ * Hashing rules of {@link MerklePatriciaTrie}, shared by the trie, its proofs and the on-chain
+ * verifier (<code>cf/tries/mpf.ak</code>).
+ *
+ * <ul>
+ *   <li>path of a key: sha2_256 of the serialised key, 64 nibbles (high nibble of a byte first)
+ *   <li>leaf at cursor <code>c</code>: <code>combine(suffix(path, c), sha2_256(value))</code>
+ *   <li>branch with prefix nibbles <code>p</code>: <code>combine(p, merkle16(children))</code>, one
+ *       byte per nibble of the prefix
+ *   <li>merkle16: binary Merkle Tree of the 16 child hashes, empty children are {@link #NULL_HASH}
+ * </ul>
+ */
+final class TrieHashing {
+
+  /** Number of nibbles in a path. */
+  static final int PATH_NIBBLES = 64;
+
+  /** Hash of an empty trie and of empty children. */
+  static final byte[] NULL_HASH = new byte[32];
+
+  private TrieHashing() {}
+
+  /** Returns nibble of a path at the given position. */
+  static int nibble(byte[] path, int index) {
+    val b = path[index >>> 1] & 0xff;
+
+    return (index & 1) == 0 ? b >>> 4 : b & 0x0f;
+  }
+
+  /** Returns nibbles of a path in [from, to), one byte per nibble. */
+  static byte[] nibbles(byte[] path, int from, int to) {
+    val nibbles = new byte[to - from];
+    for (int i = from; i < to; i++) {
+      nibbles[i - from] = (byte) nibble(path, i);
+    }
+
+    return nibbles;
+  }
+
+  /**
+   * Encodes the remainder of a path from the cursor: 0xff followed by the remaining bytes when the
+   * cursor is at a byte boundary, the first nibble followed by the remaining bytes otherwise.
+   */
+  static byte[] suffix(byte[] path, int cursor) {
+    val from = (cursor + 1) >>> 1;
+    val suffix = new byte[1 + path.length - from];
+    suffix[0] = (cursor & 1) == 0 ? (byte) 0xff : (byte) nibble(path, cursor);
+    System.arraycopy(path, from, suffix, 1, path.length - from);
+
+    return suffix;
+  }
+
+  static byte[] leafHash(byte[] path, int cursor, byte[] valueHash) {
+    return combineHash(suffix(path, cursor), valueHash);
+  }
+
+  static byte[] branchHash(byte[] prefix, byte[] merkleRoot) {
+    return combineHash(prefix, merkleRoot);
+  }
+
+  /** Returns root of the binary Merkle Tree of 16 hashes. */
+  static byte[] merkle16(byte[][] hashes) {
+    var level = hashes;
+    while (level.length > 1) {
+      val next = new byte[level.length / 2][];
+      for (int i = 0; i < next.length; i++) {
+        next[i] = combineHash(level[2 * i], level[2 * i + 1]);
+      }
+      level = next;
+    }
+
+    return level[0];
+  }
+
+  /**
+   * Returns siblings of a slot in the binary Merkle Tree of 16 hashes, concatenated from the top
+   * level down: the other half of 8, of 4, of 2 and the neighbouring slot.
+   */
+  static byte[] merkle16Neighbors(byte[][] hashes, int slot) {
+    val neighbors = new byte[4 * 32];
+
+    var level = hashes;
+    for (int depth = 3; depth >= 0; depth--) {
+      val position = slot >>> (3 - depth);
+      System.arraycopy(level[position ^ 1], 0, neighbors, depth * 32, 32);
+
+      val next = new byte[level.length / 2][];
+      for (int i = 0; i < next.length; i++) {
+        next[i] = combineHash(level[2 * i], level[2 * i + 1]);
+      }
+      level = next;
+    }
+
+    return neighbors;
+  }
+
+  /** Recomputes root of the binary Merkle Tree of 16 hashes from one slot and its neighbours. */
+  static byte[] merkle16(int slot, byte[] hash, byte[] neighbors) {
+    var root = hash;
+    for (int depth = 3; depth >= 0; depth--) {
+      val neighbor = new byte[32];
+      System.arraycopy(neighbors, depth * 32, neighbor, 0, 32);
+
+      root =
+          ((slot >>> (3 - depth)) & 1) == 0
+              ? combineHash(root, neighbor)
+              : combineHash(neighbor, root);
+    }
+
+    return root;
+  }
+
+  /** Returns root of the binary Merkle Tree of 16 hashes with only two non-empty slots. */
+  static byte[] sparseMerkle16(int slot, byte[] hash, int neighborSlot, byte[] neighborHash) {
+    val hashes = new byte[16][];
+    for (int i = 0; i < 16; i++) {
+      hashes[i] = i == slot ? hash : i == neighborSlot ? neighborHash : NULL_HASH;
+    }
+
+    return merkle16(hashes);
+  }
+}
@@ -0,0 +1,207 @@
+package org.cardanofoundation.trie;
+
+import static org.cardanofoundation.util.Hashing.sha2_256;
+
+import com.bloxbean.cardano.client.plutus.spec.ListPlutusData;
+import com.bloxbean.cardano.client.plutus.spec.PlutusData;
+import io.vavr.collection.List;
+import java.util.Arrays;
+import lombok.val;
+
+/**
+ * Proof for a key of a {@link MerklePatriciaTrie}: the steps from the root to the leaf of the key,
+ * in the trie containing the key. The same proof gives the root of the trie with the key ({@link
+ * #including}) and without it ({@link #excluding}), so it proves membership, non-membership and
+ * also an insertion or deletion of the key (a transition between the two roots).
+ *
+ * @param steps - one step per branch on the path, from the root down
+ */
+public record TrieProof(List<ProofStep> steps) {
+
+  /**
+   * Computes root hash of the trie with the key set to the value.
+   *
+   * @param key - serialised key
+   * @param value - serialised value
+   * @return - root hash
+   * @throws IllegalArgumentException when the proof is malformed
+   */
+  public byte[] including(byte[] key, byte[] value) {
+    val path = sha2_256(key);
+    checkWellFormed(path);
+
+    return doIncluding(path, sha2_256(value), 0, steps);
+  }
+
+  /**
+   * Computes root hash of the trie without the key.
+   *
+   * @param key - serialised key
+   * @return - root hash
+   * @throws IllegalArgumentException when the proof is malformed
+   */
+  public byte[] excluding(byte[] key) {
+    val path = sha2_256(key);
+    checkWellFormed(path);
+    if (steps.isEmpty()) {
+      return TrieHashing.NULL_HASH.clone();
+    }
+
+    return doExcluding(path, 0, steps);
+  }
+
+  /**
+   * Checks that the trie with the given root hash holds the value under the key.
+   *
+   * @param rootHash - trie root hash
+   * @param key - serialised key
+   * @param value - serialised value
+   * @return <code>true</code> when the proof is valid, <code>false</code> otherwise
+   */
+  public boolean has(byte[] rootHash, byte[] key, byte[] value) {
+    val path = sha2_256(key);
+
+    return isWellFormed(path)
+        && Arrays.equals(rootHash, doIncluding(path, sha2_256(value), 0, steps));
+  }
+
+  /**
+   * Checks that the trie with the given root hash does not hold the key.
+   *
+   * @param rootHash - trie root hash
+   * @param key - serialised key
+   * @return <code>true</code> when the proof is valid, <code>false</code> otherwise
+   */
+  public boolean miss(byte[] rootHash, byte[] key) {
+    val path = sha2_256(key);
+    if (!isWellFormed(path)) {
+      return false;
+    }
+
+    return Arrays.equals(
+        rootHash, steps.isEmpty() ? TrieHashing.NULL_HASH : doExcluding(path, 0, steps));
+  }
+
+  /** Returns the proof as Plutus data, matching <code>Proof</code> of the on-chain code. */
+  public PlutusData toPlutusData() {
+    return ListPlutusData.builder()
+        .plutusDataList(steps.map(ProofStep::toPlutusData).toJavaList())
+        .build();
+  }
+
+  /**
+   * Checks that steps fit into the path, hashes have the expected lengths and the other child of a
+   * {@link ProofStep.Fork} or {@link ProofStep.Leaf} step is off the path. Otherwise the key itself
+   * could pose as the neighbour of its own branch, making a present key look absent.
+   */
+  private boolean isWellFormed(byte[] path) {
+    var cursor = 0;
+    for (val step : steps) {
+      if (step.skip() < 0 || cursor + step.skip() >= TrieHashing.PATH_NIBBLES) {
+        return false;
+      }
+      val slot = TrieHashing.nibble(path, cursor + step.skip());
+
+      if (step instanceof ProofStep.Branch b && b.neighbors().length != 4 * 32) {
+        return false;
+      }
+      if (step instanceof ProofStep.Fork f
+          && (f.neighbor().nibble() < 0
+              || f.neighbor().nibble() > 15
+              || f.neighbor().nibble() == slot
+              || f.neighbor().prefix().length >= TrieHashing.PATH_NIBBLES
+              || f.neighbor().root().length != 32)) {
+        return false;
+      }
+      if (step instanceof ProofStep.Leaf l
+          && (l.key().length != 32
+              || l.value().length != 32
+              || TrieHashing.nibble(l.key(), cursor + step.skip()) == slot
+              || !Arrays.equals(
+                  TrieHashing.nibbles(l.key(), cursor, cursor + step.skip()),
+                  TrieHashing.nibbles(path, cursor, cursor + step.skip())))) {
+        return false;
+      }
+      cursor += step.skip() + 1;
+    }
+
+    return true;
+  }
+
+  private void checkWellFormed(byte[] path) {
+    if (!isWellFormed(path)) {
+      throw new IllegalArgumentException("Malformed proof.");
+    }
+  }
+
+  private static byte[] doIncluding(
+      byte[] path, byte[] valueHash, int cursor, List<ProofStep> steps) {
+    if (steps.isEmpty()) {
+      return TrieHashing.leafHash(path, cursor, valueHash);
+    }
+
+    val step = steps.head();
+    val me = doIncluding(path, valueHash, cursor + step.skip() + 1, steps.tail());
+
+    return branch(path, cursor, step, me);
+  }
+
+  private static byte[] doExcluding(byte[] path, int cursor, List<ProofStep> steps) {
+    val step = steps.head();
+    if (!steps.tail().isEmpty()) {
+      val me = doExcluding(path, cursor + step.skip() + 1, steps.tail());
+
+      return branch(path, cursor, step, me);
+    }
+
+    // the last branch loses the leaf of the key
+    val prefix = TrieHashing.nibbles(path, cursor, cursor + step.skip());
+    val slot = TrieHashing.nibble(path, cursor + step.skip());
+
+    if (step instanceof ProofStep.Branch b) {
+      return TrieHashing.branchHash(
+          prefix, TrieHashing.merkle16(slot, TrieHashing.NULL_HASH, b.neighbors()));
+    }
+    if (step instanceof ProofStep.Fork f) {
+      // the other branch takes over, its prefix is extended by ours and its position
+      val neighbor = f.neighbor();
+      val extended = new byte[prefix.length + 1 + neighbor.prefix().length];
+      System.arraycopy(prefix, 0, extended, 0, prefix.length);
+      extended[prefix.length] = (byte) neighbor.nibble();
+      System.arraycopy(neighbor.prefix(), 0, extended, prefix.length + 1, neighbor.prefix().length);
+
+      return TrieHashing.branchHash(extended, neighbor.root());
+    }
+
+    // the other leaf moves up to the position of the branch
+    val leaf = (ProofStep.Leaf) step;
+
+    return TrieHashing.leafHash(leaf.key(), cursor, leaf.value());
+  }
+
+  /** Hash of the branch of a step, given the hash of the child on the path. */
+  private static byte[] branch(byte[] path, int cursor, ProofStep step, byte[] me) {
+    val prefix = TrieHashing.nibbles(path, cursor, cursor + step.skip());
+    val slot = TrieHashing.nibble(path, cursor + step.skip());
+
+    if (step instanceof ProofStep.Branch b) {
+      return TrieHashing.branchHash(prefix, TrieHashing.merkle16(slot, me, b.neighbors()));
+    }
+    if (step instanceof ProofStep.Fork f) {
+      val neighbor = f.neighbor();
+      val neighborHash = TrieHashing.branchHash(neighbor.prefix(), neighbor.root());
+
+      return TrieHashing.branchHash(
+          prefix, TrieHashing.sparseMerkle16(slot, me, neighbor.nibble(), neighborHash));
+    }
+
+    val leaf = (ProofStep.Leaf) step;
+    val childCursor = cursor + step.skip() + 1;
+    val neighborHash = TrieHashing.leafHash(leaf.key(), childCursor, leaf.value());
+
+    return TrieHashing.branchHash(
+        prefix,
+        TrieHashing.sparseMerkle16(
+            slot, me, TrieHashing.nibble(leaf.key(), cursor + step.skip()), neighborHash));
+  }
+}
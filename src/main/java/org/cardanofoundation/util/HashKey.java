@@ -0,0 +1,45 @@
+package org.cardanofoundation.util;
+
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/** Wraps a hash (byte-array) so it can be used as a key in hash based collections. */
+public final class HashKey {
+
+  private final byte[] bytes;
+
+  private final int hashCode;
+
+  private HashKey(byte[] bytes) {
+    this.bytes = bytes;
+    this.hashCode = Arrays.hashCode(bytes);
+  }
+
+  /** Creates a key backed by the given array, which must not be modified afterwards. */
+  public static HashKey of(byte[] bytes) {
+    return new HashKey(bytes);
+  }
+
+  public byte[] bytes() {
+    return bytes;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+
+    return o instanceof HashKey other && Arrays.equals(bytes, other.bytes);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return "HashKey{" + "hash=0x" + HexFormat.of().formatHex(bytes) + '}';
+  }
+}
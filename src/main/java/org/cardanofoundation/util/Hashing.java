@@ -1,14 +1,60 @@
 package org.cardanofoundation.util;
 
 import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
 import lombok.val;
 
 public final class Hashing {
 
+  /**
+   * Digests are not thread safe, each thread reuses its own instance instead of a lookup per hash.
+   */
+  private static final ThreadLocal<MessageDigest> SHA_256 =
+      ThreadLocal.withInitial(() -> newDigest("SHA-256"));
+
   public static byte[] combineHash(byte[] left, byte[] right) {
-    return sha2_256(Bytes.concat(left, right));
+    Objects.requireNonNull(left);
+    Objects.requireNonNull(right);
+
+    val digest = SHA_256.get();
+    digest.update(left);
+    digest.update(right);
+
+    return digest.digest();
+  }
+
+  /**
+   * Same as {@link #combineHash(byte[], byte[])}, but writes the hash into <code>out</code> instead
+   * of allocating a new array. <code>out</code> may be one of the inputs.
+   *
+   * @param left - left hash
+   * @param right - right hash
+   * @param out - array of at least 32 bytes receiving the hash
+   * @return - <code>out</code>
+   */
+  public static byte[] combineHash(byte[] left, byte[] right, byte[] out) {
+    Objects.requireNonNull(left);
+    Objects.requireNonNull(right);
+
+    val digest = SHA_256.get();
+    // checked before any update, a failing call must not leave input behind in the shared digest
+    if (out.length < digest.getDigestLength()) {
+      throw new IllegalArgumentException("Output buffer is too small.");
+    }
+    digest.update(left);
+    digest.update(right);
+
+    try {
+      digest.digest(out, 0, digest.getDigestLength());
+    } catch (DigestException e) {
+      digest.reset();
+      throw new IllegalArgumentException("Output buffer is too small.", e);
+    }
+
+    return out;
   }
 
   public static byte[] sha2_256(String value) {
@@ -16,10 +62,12 @@ public final class Hashing {
   }
 
   public static byte[] sha2_256(byte[] buffer) {
-    try {
-      val digest = MessageDigest.getInstance("SHA-256");
+    return SHA_256.get().digest(buffer);
+  }
 
-      return digest.digest(buffer);
+  private static MessageDigest newDigest(String algorithm) {
+    try {
+      return MessageDigest.getInstance(algorithm);
     } catch (NoSuchAlgorithmException e) {
       throw new RuntimeException(e);
     }
@@ -1,10 +1,14 @@
 package org.cardanofoundation.list;
 
 import static com.bloxbean.cardano.client.util.HexUtil.encodeHexString;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.List;
 import java.util.function.Function;
+import java.util.stream.IntStream;
+import lombok.val;
 import org.cardanofoundation.util.Hashing;
 import org.junit.jupiter.api.Test;
 
@@ -42,4 +46,64 @@ public class HashedListTest {
         encodeHexString(
             HashedList.create(List.of("dog", "cat", "horse", "mouse"), createHasher()).hash()));
   }
+
+  @Test
+  public void testParallelMatchesSequential() {
+    for (int size = 0; size < 50; size++) {
+      val items = IntStream.range(0, size).mapToObj(i -> "item-" + i).toList();
+
+      val expected = HashedList.create(items, createHasher());
+      val actual = HashedList.createParallel(items, createHasher());
+
+      assertArrayEquals(expected.hash(), actual.hash());
+      assertEquals(expected.list().size(), actual.list().size());
+    }
+  }
+
+  @Test
+  public void testBuilderMatchesCreate() {
+    val builder = HashedListBuilder.create(createHasher());
+    assertEquals(
+        "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855",
+        encodeHexString(builder.hash()));
+
+    builder.append("dog").append("cat");
+    assertEquals(
+        "abc48c555c2e7fb968c02bf0a6e6854b7239b3ede1d5745152cc656e430ae845",
+        encodeHexString(builder.hash()));
+
+    val resumed = HashedListBuilder.from(builder.build(), createHasher());
+    resumed.append("horse").append("mouse");
+
+    assertEquals(4, resumed.size());
+    assertEquals(
+        "f3b80d721103a0a321bc3b88a946c9c9fc86f5721b61cf012d731b6a1d9efe3b",
+        encodeHexString(resumed.build().hash()));
+    assertEquals(2, builder.size());
+  }
+
+  @Test
+  public void testFailedAppendKeepsBuilder() {
+    Function<String, byte[]> hasher =
+        str -> {
+          if (str.equals("horse")) {
+            throw new IllegalStateException("hasher failed");
+          }
+          // a hash the running hash cannot be combined with
+          return str.equals("mouse") ? null : Hashing.sha2_256(str);
+        };
+    val builder = HashedListBuilder.create(hasher).append("dog").append("cat");
+
+    assertThrows(IllegalStateException.class, () -> builder.append("horse"));
+    assertThrows(NullPointerException.class, () -> builder.append("mouse"));
+
+    assertEquals(2, builder.size());
+    assertEquals(
+        "abc48c555c2e7fb968c02bf0a6e6854b7239b3ede1d5745152cc656e430ae845",
+        encodeHexString(builder.build().hash()));
+
+    builder.append("owl");
+    assertArrayEquals(
+        HashedList.create(List.of("dog", "cat", "owl"), createHasher()).hash(), builder.hash());
+  }
 }
@@ -0,0 +1,85 @@
+package org.cardanofoundation.merkle;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.vavr.collection.List;
+import java.nio.ByteBuffer;
+import java.util.HexFormat;
+import java.util.function.Function;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+public class FlatMerkleTreeTest {
+
+  @Test
+  public void testRootHash() {
+    val mt =
+        FlatMerkleTree.fromList(List.of("dog", "cat", "mouse", "horse").asJava(), fromStringFun());
+
+    assertEquals(
+        "bd80e6bec9c2ef6158cf6a74f7f87531e94e0a824b9ba6db28c9a00ba418d452",
+        HexFormat.of().formatHex(mt.rootHash()));
+  }
+
+  @Test
+  public void testEmptyTree() {
+    val mt = FlatMerkleTree.fromList(java.util.List.<String>of(), fromStringFun());
+
+    assertTrue(mt.isEmpty());
+    assertEquals(0, mt.rootHash().length);
+    assertFalse(mt.getProof(0).isPresent());
+    assertTrue(MerkleTree.isEmpty(mt.toMerkleElement()));
+  }
+
+  @Test
+  public void testMatchesMerkleTree() {
+    for (int size = 1; size < 70; size++) {
+      val items = List.range(0, size).map(i -> "item-" + i);
+      val expected = MerkleTree.fromList(items, fromStringFun());
+      val mt = FlatMerkleTree.fromList(items.asJava(), fromStringFun(), ByteBuffer::allocateDirect);
+
+      assertArrayEquals(expected.itemHash(), mt.rootHash());
+
+      for (int i = 0; i < size; i++) {
+        val item = items.get(i);
+        val proof = mt.getProof(item, fromStringFun()).orElseThrow();
+
+        assertEquals(
+            MerkleTree.getProof(expected, item, fromStringFun())
+                .orElseThrow()
+                .map(ProofItem::toString),
+            proof.map(ProofItem::toString));
+        assertTrue(mt.verifyProof(item, proof, fromStringFun()));
+      }
+    }
+  }
+
+  @Test
+  public void testMissingItem() {
+    val mt = FlatMerkleTree.fromList(List.of("dog", "cat", "mouse").asJava(), fromStringFun());
+
+    assertFalse(mt.getProof("horse", fromStringFun()).isPresent());
+    assertFalse(mt.getProof(3).isPresent());
+  }
+
+  @Test
+  public void testConversions() {
+    val items = List.of("dog", "cat", "mouse", "horse", "pig", "bull", "beaver");
+    val mt = MerkleTree.fromList(items, fromStringFun());
+
+    val flat = FlatMerkleTree.fromMerkleElement(mt);
+    assertArrayEquals(mt.itemHash(), flat.rootHash());
+
+    val back = flat.toMerkleElement();
+    assertArrayEquals(mt.itemHash(), back.itemHash());
+    assertEquals(items, MerkleTree.toList(back));
+    assertEquals(
+        MerkleTree.getProof(mt, "bull", fromStringFun()).orElseThrow().map(ProofItem::toString),
+        MerkleTree.getProof(back, "bull", fromStringFun()).orElseThrow().map(ProofItem::toString));
+  }
+
+  private static Function<String, byte[]> fromStringFun() {
+    return str -> str.getBytes(UTF_8);
+  }
+}
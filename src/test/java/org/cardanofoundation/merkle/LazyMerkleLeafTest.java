@@ -0,0 +1,71 @@
+package org.cardanofoundation.merkle;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.vavr.collection.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+public class LazyMerkleLeafTest {
+
+  @Test
+  public void testFromSourceMatchesFromList() {
+    for (int size = 0; size < 40; size++) {
+      val items = List.range(0, size).map(i -> "item-" + i);
+      val expected = MerkleTree.fromList(items, fromStringFun());
+
+      val mt =
+          MerkleTree.<String>fromSource(handle -> items.get((int) handle), size, fromStringFun());
+
+      assertArrayEquals(expected.itemHash(), mt.itemHash());
+      assertEquals(items, MerkleTree.toList(mt));
+    }
+  }
+
+  @Test
+  public void testItemsLoadedOnDemand() {
+    val items = List.range(0, 100).map(i -> "item-" + i);
+    val loads = new AtomicInteger();
+    ItemSource<String> source =
+        handle -> {
+          loads.incrementAndGet();
+          return items.get((int) handle);
+        };
+
+    val mt = MerkleTree.fromSource(source, items.size(), fromStringFun());
+    assertEquals(100, loads.get());
+
+    val proof = MerkleTree.getProof(mt, "item-42", fromStringFun()).orElseThrow();
+    assertTrue(MerkleTree.verifyProof(mt.itemHash(), "item-42", proof, fromStringFun()));
+    assertEquals(100, loads.get());
+
+    var leftmost = mt;
+    while (leftmost instanceof MerkleNode<String> mn) {
+      leftmost = mn.getLeft();
+    }
+    assertInstanceOf(LazyMerkleLeaf.class, leftmost);
+    assertEquals("item-0", leftmost.item());
+    assertEquals(101, loads.get());
+  }
+
+  @Test
+  public void testUpdateLazyTree() {
+    val items = List.range(0, 25).map(i -> "item-" + i);
+    val mt = MerkleTree.<String>fromSource(handle -> items.get((int) handle), 25, fromStringFun());
+
+    val added = MerkleTree.add(mt, "beaver", fromStringFun());
+    val removed = MerkleTree.remove(added, "item-3", fromStringFun());
+
+    val expected = MerkleTree.fromList(items.append("beaver").remove("item-3"), fromStringFun());
+
+    assertArrayEquals(expected.itemHash(), removed.itemHash());
+    assertEquals(items.append("beaver").remove("item-3"), MerkleTree.toList(removed));
+  }
+
+  private static Function<String, byte[]> fromStringFun() {
+    return str -> str.getBytes(UTF_8);
+  }
+}
@@ -0,0 +1,95 @@
+package org.cardanofoundation.merkle;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.vavr.collection.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+public class LeafHashCacheTest {
+
+  @Test
+  public void testSerialisesOncePerItem() {
+    val calls = new AtomicInteger();
+    val cache = LeafHashCache.byIdentity(countingFun(calls), 1000);
+    val items = List.range(0, 100).map(i -> "item-" + i);
+
+    val mt = MerkleTree.fromList(items, cache);
+    assertArrayEquals(MerkleTree.fromList(items, fromStringFun()).itemHash(), mt.itemHash());
+    assertEquals(100, calls.get());
+
+    for (val item : items) {
+      val proof = MerkleTree.getProof(mt, item, cache).orElseThrow();
+
+      assertTrue(MerkleTree.verifyProof(mt.itemHash(), item, proof, cache));
+      assertTrue(MerkleTree.verifyProof(mt.itemHash(), item, proof, cache));
+    }
+
+    val updated = MerkleTree.remove(MerkleTree.add(mt, "beaver", cache), items.get(7), cache);
+    assertArrayEquals(
+        MerkleTree.fromList(items.append("beaver").remove("item-7"), fromStringFun()).itemHash(),
+        updated.itemHash());
+
+    assertEquals(101, calls.get());
+    assertEquals(101, cache.misses());
+    assertEquals(301, cache.hits());
+
+    // hits share the cached array, verifying does not write into it
+    assertSame(cache.leafHash("item-3"), cache.leafHash("item-3"));
+    assertArrayEquals(
+        MerkleTree.fromList(List.of("item-3"), fromStringFun()).itemHash(),
+        cache.leafHash("item-3"));
+  }
+
+  @Test
+  public void testEviction() {
+    val calls = new AtomicInteger();
+    val cache = LeafHashCache.byKey(countingFun(calls), Function.identity(), 10);
+
+    for (int i = 0; i < 20; i++) {
+      cache.leafHash("item-" + i);
+    }
+    assertEquals(10, cache.size());
+
+    // most recently used entries stay
+    cache.leafHash("item-19");
+    assertEquals(20, calls.get());
+    cache.leafHash("item-0");
+    assertEquals(21, calls.get());
+
+    cache.clear();
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testKeyedByValue() {
+    val calls = new AtomicInteger();
+    val byKey = LeafHashCache.byKey(countingFun(calls), Function.identity(), 10);
+    val byIdentity = LeafHashCache.byIdentity(countingFun(calls), 10);
+
+    byKey.leafHash(new String("dog"));
+    byKey.leafHash(new String("dog"));
+    assertEquals(1, calls.get());
+
+    byIdentity.leafHash(new String("dog"));
+    byIdentity.leafHash(new String("dog"));
+    assertEquals(3, calls.get());
+
+    assertThrows(
+        IllegalArgumentException.class, () -> LeafHashCache.byIdentity(fromStringFun(), 0));
+  }
+
+  private static Function<String, byte[]> countingFun(AtomicInteger calls) {
+    return str -> {
+      calls.incrementAndGet();
+      return str.getBytes(UTF_8);
+    };
+  }
+
+  private static Function<String, byte[]> fromStringFun() {
+    return str -> str.getBytes(UTF_8);
+  }
+}
@@ -0,0 +1,196 @@
+package org.cardanofoundation.merkle;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.vavr.collection.List;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Function;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MappedMerkleTreeTest {
+
+  @TempDir Path dir;
+
+  @Test
+  public void testCreateAndReopen() throws IOException {
+    val items = List.range(0, 37).map(i -> "item-" + i);
+    val expected = MerkleTree.fromList(items, fromStringFun());
+    val file = dir.resolve("tree.bin");
+
+    try (val mt = MappedMerkleTree.create(file, items.asJava(), fromStringFun())) {
+      assertArrayEquals(expected.itemHash(), mt.rootHash());
+    }
+
+    try (val mt = MappedMerkleTree.<String>open(file)) {
+      assertEquals(37, mt.size());
+      assertArrayEquals(expected.itemHash(), mt.rootHash());
+
+      for (val item : items) {
+        val proof = mt.getProof(item, fromStringFun()).orElseThrow();
+
+        assertTrue(MerkleTree.verifyProof(mt.rootHash(), item, proof, fromStringFun()));
+      }
+      assertFalse(mt.getProof("horse", fromStringFun()).isPresent());
+    }
+  }
+
+  @Test
+  public void testCreateFromMerkleElement() throws IOException {
+    val mt = MerkleTree.fromList(List.of("dog", "cat", "mouse", "horse", "pig"), fromStringFun());
+
+    try (val mapped = MappedMerkleTree.create(dir.resolve("tree.bin"), mt)) {
+      assertArrayEquals(mt.itemHash(), mapped.rootHash());
+      assertEquals(
+          MerkleTree.getProof(mt, 3).orElseThrow().map(ProofItem::toString),
+          mapped.getProof(3).orElseThrow().map(ProofItem::toString));
+    }
+  }
+
+  @Test
+  public void testUpdateInPlace() throws IOException {
+    val items = List.range(0, 21).map(i -> "item-" + i);
+    val file = dir.resolve("tree.bin");
+
+    try (val mt = MappedMerkleTree.create(file, items.asJava(), fromStringFun())) {
+      mt.set(13, "beaver", fromStringFun());
+    }
+
+    try (val mt = MappedMerkleTree.<String>open(file)) {
+      val expected = MerkleTree.fromList(items.update(13, "beaver"), fromStringFun());
+
+      assertArrayEquals(expected.itemHash(), mt.rootHash());
+      assertThrows(IndexOutOfBoundsException.class, () -> mt.set(21, "owl", fromStringFun()));
+    }
+  }
+
+  @Test
+  public void testEmptyTree() throws IOException {
+    val file = dir.resolve("tree.bin");
+
+    try (val mt = MappedMerkleTree.create(file, java.util.List.<String>of(), fromStringFun())) {
+      assertEquals(0, mt.rootHash().length);
+    }
+    try (val mt = MappedMerkleTree.<String>open(file)) {
+      assertEquals(0, mt.size());
+      assertFalse(mt.getProof(0).isPresent());
+    }
+  }
+
+  @Test
+  public void testOpenInvalidFile() throws IOException {
+    val file = Files.write(dir.resolve("tree.bin"), "not a merkle tree".getBytes(UTF_8));
+
+    assertThrows(IOException.class, () -> MappedMerkleTree.open(file));
+  }
+
+  @Test
+  public void testFailedCreateLeavesNoFile() throws IOException {
+    val file = dir.resolve("tree.bin");
+    val items = List.range(0, 10).map(i -> "item-" + i);
+    Function<String, byte[]> failing =
+        str -> {
+          if (str.equals("item-7")) {
+            throw new IllegalStateException("serialiser failed");
+          }
+          return str.getBytes(UTF_8);
+        };
+
+    assertThrows(
+        IllegalStateException.class, () -> MappedMerkleTree.create(file, items.asJava(), failing));
+    assertFalse(Files.exists(file));
+    try (val files = Files.list(dir)) {
+      assertEquals(0, files.count());
+    }
+  }
+
+  @Test
+  public void testFailedCreateKeepsExistingFile() throws IOException {
+    val file = dir.resolve("tree.bin");
+    val items = List.range(0, 10).map(i -> "item-" + i);
+    val expected = MerkleTree.fromList(items, fromStringFun());
+    MappedMerkleTree.create(file, items.asJava(), fromStringFun()).close();
+
+    Function<String, byte[]> failing =
+        str -> {
+          throw new IllegalStateException("serialiser failed");
+        };
+    assertThrows(
+        IllegalStateException.class,
+        () -> MappedMerkleTree.create(file, items.append("item-10").asJava(), failing));
+
+    try (val mt = MappedMerkleTree.<String>open(file)) {
+      assertArrayEquals(expected.itemHash(), mt.rootHash());
+    }
+    try (val files = Files.list(dir)) {
+      assertEquals(java.util.List.of(file), files.toList());
+    }
+  }
+
+  @Test
+  public void testUnflushedUpdateIsRejected() throws IOException {
+    val file = dir.resolve("tree.bin");
+    val items = List.range(0, 8).map(i -> "item-" + i);
+    MappedMerkleTree.create(file, items.asJava(), fromStringFun()).close();
+
+    try (val mt = MappedMerkleTree.<String>open(file)) {
+      mt.set(3, "beaver", fromStringFun());
+      // as left behind by a crash before the update was flushed
+      assertThrows(IOException.class, () -> MappedMerkleTree.open(file));
+
+      mt.flush();
+      try (val reopened = MappedMerkleTree.<String>openReadOnly(file)) {
+        assertArrayEquals(mt.rootHash(), reopened.rootHash());
+      }
+    }
+  }
+
+  @Test
+  public void testOpenReadOnly() throws IOException {
+    val file = dir.resolve("tree.bin");
+    val items = List.range(0, 6).map(i -> "item-" + i);
+    MappedMerkleTree.create(file, items.asJava(), fromStringFun()).close();
+    val bytes = Files.readAllBytes(file);
+
+    try (val mt = MappedMerkleTree.<String>openReadOnly(file)) {
+      assertArrayEquals(MerkleTree.fromList(items, fromStringFun()).itemHash(), mt.rootHash());
+      assertTrue(mt.getProof("item-4", fromStringFun()).isPresent());
+      assertThrows(IllegalStateException.class, () -> mt.set(0, "owl", fromStringFun()));
+    }
+    assertArrayEquals(bytes, Files.readAllBytes(file));
+  }
+
+  @Test
+  public void testOpenInconsistentFile() throws IOException {
+    val file = dir.resolve("tree.bin");
+    val items = List.range(0, 5).map(i -> "item-" + i);
+    MappedMerkleTree.create(file, items.asJava(), fromStringFun()).close();
+    val valid = Files.readAllBytes(file);
+
+    // interrupted before the completion marker was written
+    Files.write(file, withInt(valid, 12, 0));
+    assertThrows(IOException.class, () -> MappedMerkleTree.open(file));
+
+    // leaf counts not matching the file
+    for (val size : new int[] {-1, 4, 6, Integer.MAX_VALUE}) {
+      Files.write(file, withInt(valid, 8, size));
+      assertThrows(IOException.class, () -> MappedMerkleTree.open(file));
+    }
+  }
+
+  private static byte[] withInt(byte[] bytes, int offset, int value) {
+    val copy = bytes.clone();
+    ByteBuffer.wrap(copy).putInt(offset, value);
+
+    return copy;
+  }
+
+  private static Function<String, byte[]> fromStringFun() {
+    return str -> str.getBytes(UTF_8);
+  }
+}
@@ -0,0 +1,85 @@
+package org.cardanofoundation.merkle;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.vavr.collection.List;
+import java.util.function.Function;
+import lombok.val;
+import org.cardanofoundation.util.Hashing;
+import org.junit.jupiter.api.Test;
+
+public class MerkleAccumulatorTest {
+
+  @Test
+  public void testEmpty() {
+    val acc = MerkleAccumulator.create(fromStringFun());
+
+    assertTrue(acc.isEmpty());
+    assertEquals(0, acc.rootHash().length);
+    assertEquals(0, acc.canonicalRootHash().length);
+    assertFalse(acc.getProof(0).isPresent());
+  }
+
+  @Test
+  public void testRootMatchesFromListForPowersOfTwo() {
+    val acc = MerkleAccumulator.create(fromStringFun());
+    var items = List.<String>empty();
+
+    for (int i = 0; i < 1024; i++) {
+      val item = "item-" + i;
+      assertEquals(i, acc.append(item));
+      items = items.append(item);
+
+      val expected = MerkleTree.fromList(items, fromStringFun()).itemHash();
+      assertArrayEquals(expected, acc.canonicalRootHash());
+
+      if (Integer.bitCount(acc.size()) == 1) {
+        assertArrayEquals(expected, acc.rootHash());
+      }
+    }
+  }
+
+  @Test
+  public void testRootBagsPeaksFromRight() {
+    val acc = MerkleAccumulator.create(fromStringFun());
+    List.of("a", "b", "c", "d", "e", "f", "g").forEach(acc::append);
+
+    val peak4 = MerkleTree.fromList(List.of("a", "b", "c", "d"), fromStringFun()).itemHash();
+    val peak2 = MerkleTree.fromList(List.of("e", "f"), fromStringFun()).itemHash();
+    val peak1 = Hashing.sha2_256("g");
+
+    assertArrayEquals(
+        Hashing.combineHash(peak4, Hashing.combineHash(peak2, peak1)), acc.rootHash());
+  }
+
+  @Test
+  public void testProofs() {
+    val acc = MerkleAccumulator.create(fromStringFun());
+    var items = List.<String>empty();
+
+    for (int size = 1; size <= 70; size++) {
+      val item = "item-" + (size - 1);
+      acc.append(item);
+      items = items.append(item);
+
+      val mt = MerkleTree.fromList(items, fromStringFun());
+      for (int i = 0; i < size; i++) {
+        val proof = acc.getProof(i).orElseThrow();
+        assertTrue(MerkleTree.verifyProof(acc.rootHash(), items.get(i), proof, fromStringFun()));
+
+        val canonicalProof = acc.canonicalProof(i).orElseThrow();
+        assertEquals(
+            MerkleTree.getProof(mt, i).orElseThrow().map(ProofItem::toString),
+            canonicalProof.map(ProofItem::toString));
+      }
+
+      assertFalse(acc.getProof(size).isPresent());
+      assertFalse(acc.canonicalProof(-1).isPresent());
+    }
+  }
+
+  private static Function<String, byte[]> fromStringFun() {
+    return str -> str.getBytes(UTF_8);
+  }
+}
@@ -0,0 +1,145 @@
+package org.cardanofoundation.merkle;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bloxbean.cardano.client.plutus.spec.BytesPlutusData;
+import com.bloxbean.cardano.client.plutus.spec.ConstrPlutusData;
+import com.bloxbean.cardano.client.plutus.spec.ListPlutusData;
+import com.bloxbean.cardano.client.plutus.spec.PlutusData;
+import io.vavr.collection.List;
+import java.nio.ByteBuffer;
+import java.util.function.Function;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+public class MerkleCodecTest {
+
+  @Test
+  public void testProofRoundTrip() {
+    val items = List.range(0, 37).map(i -> "item-" + i);
+    val mt = MerkleTree.fromList(items, fromStringFun());
+
+    for (val item : items) {
+      val proof = MerkleTree.getProof(mt, item, fromStringFun()).orElseThrow();
+      val encoded = MerkleCodec.encodeProof(proof);
+
+      assertEquals(MerkleCodec.proofSize(proof.size()), encoded.length);
+      assertEquals(
+          proof.map(ProofItem::toString),
+          MerkleCodec.decodeProof(ByteBuffer.wrap(encoded)).map(ProofItem::toString));
+
+      val reader = MerkleCodec.readProof(ByteBuffer.wrap(encoded));
+      assertTrue(reader.verify(mt.itemHash(), item, fromStringFun()));
+      assertFalse(reader.verify(mt.itemHash(), "beaver", fromStringFun()));
+    }
+  }
+
+  @Test
+  public void testEmptyProof() {
+    val encoded = MerkleCodec.encodeProof(List.empty());
+
+    assertEquals(4, encoded.length);
+    assertTrue(MerkleCodec.decodeProof(ByteBuffer.wrap(encoded)).isEmpty());
+  }
+
+  @Test
+  public void testTreeRoundTrip() {
+    val items = List.range(0, 21).map(i -> "item-" + i);
+    val mt = MerkleTree.fromList(items, fromStringFun());
+
+    val encoded = MerkleCodec.encodeTree(mt);
+    assertArrayEquals(encoded, MerkleCodec.encodeTree(FlatMerkleTree.fromMerkleElement(mt)));
+    assertEquals(MerkleCodec.treeSize(21), encoded.length);
+
+    val decoded = MerkleCodec.<String>decodeTree(ByteBuffer.wrap(encoded));
+
+    assertEquals(21, decoded.size());
+    assertArrayEquals(mt.itemHash(), decoded.rootHash());
+    for (int i = 0; i < items.size(); i++) {
+      assertEquals(
+          MerkleTree.getProof(mt, i).orElseThrow().map(ProofItem::toString),
+          decoded.getProof(items.get(i), fromStringFun()).orElseThrow().map(ProofItem::toString));
+    }
+  }
+
+  @Test
+  public void testSequenceOfValues() {
+    val mt = MerkleTree.fromList(List.of("dog", "cat", "mouse"), fromStringFun());
+    val proof = MerkleTree.getProof(mt, 2).orElseThrow();
+
+    val buffer = ByteBuffer.allocate(MerkleCodec.treeSize(3) + MerkleCodec.proofSize(proof.size()));
+    buffer.put(MerkleCodec.encodeTree(mt));
+    MerkleCodec.encodeProof(proof, buffer);
+    buffer.flip();
+
+    assertArrayEquals(mt.itemHash(), MerkleCodec.decodeTree(buffer).rootHash());
+    assertEquals(proof.size(), MerkleCodec.readProof(buffer).length());
+    assertFalse(buffer.hasRemaining());
+  }
+
+  @Test
+  public void testMalformedInput() {
+    val mt = MerkleTree.fromList(List.of("dog", "cat", "mouse"), fromStringFun());
+    val proof = MerkleCodec.encodeProof(MerkleTree.getProof(mt, 0).orElseThrow());
+    val tree = MerkleCodec.encodeTree(mt);
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> MerkleCodec.readProof(ByteBuffer.wrap(proof, 0, proof.length - 1)));
+    assertThrows(
+        IllegalArgumentException.class, () -> MerkleCodec.readProof(ByteBuffer.wrap(tree)));
+    assertThrows(
+        IllegalArgumentException.class, () -> MerkleCodec.decodeTree(ByteBuffer.wrap(proof)));
+
+    // changed hash of the last leaf, its parent no longer matches
+    val tampered = tree.clone();
+    tampered[MerkleCodec.treeSize(3) - 1] ^= 1;
+    assertThrows(
+        IllegalArgumentException.class, () -> MerkleCodec.decodeTree(ByteBuffer.wrap(tampered)));
+
+    // proof of a single step with a padding bit set
+    val padded = proof.clone();
+    padded[4] |= (byte) 0x80;
+    assertThrows(
+        IllegalArgumentException.class, () -> MerkleCodec.readProof(ByteBuffer.wrap(padded)));
+
+    tree[0] = 2;
+    assertThrows(
+        IllegalArgumentException.class, () -> MerkleCodec.decodeTree(ByteBuffer.wrap(tree)));
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> MerkleCodec.encodeProof(List.of(new ProofItem.Left(new byte[] {1, 2, 3}))));
+  }
+
+  @Test
+  public void testSmallerThanPlutusData() {
+    val items = List.range(0, 1000).map(i -> "item-" + i);
+    val mt = MerkleTree.fromList(items, fromStringFun());
+    val proof = MerkleTree.getProof(mt, 500).orElseThrow();
+
+    val plutusProof =
+        ListPlutusData.builder()
+            .plutusDataList(
+                proof
+                    .map(
+                        item ->
+                            (PlutusData)
+                                ConstrPlutusData.of(
+                                    item instanceof ProofItem.Left ? 0 : 1,
+                                    BytesPlutusData.of(item.hash())))
+                    .asJava())
+            .build();
+
+    val compact = MerkleCodec.encodeProof(proof).length;
+    val plutus = plutusProof.serializeToBytes().length;
+
+    assertEquals(4 + (proof.size() + 7) / 8 + proof.size() * 32, compact);
+    assertTrue(compact < plutus, compact + " vs " + plutus);
+  }
+
+  private static Function<String, byte[]> fromStringFun() {
+    return str -> str.getBytes(UTF_8);
+  }
+}
@@ -0,0 +1,99 @@
+package org.cardanofoundation.merkle;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.vavr.collection.List;
+import java.util.Random;
+import java.util.function.Function;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+public class MerkleIndexTest {
+
+  @Test
+  public void testIndexOf() {
+    val mt = MerkleTree.fromList(List.of("dog", "cat", "mouse", "cat"), fromStringFun());
+    val index = MerkleIndex.create(mt);
+
+    assertEquals(4, index.size());
+    assertEquals(0, index.indexOf("dog", fromStringFun()).orElseThrow());
+    assertEquals(1, index.indexOf("cat", fromStringFun()).orElseThrow());
+    assertEquals(2, index.indexOf("mouse", fromStringFun()).orElseThrow());
+    assertFalse(index.indexOf("horse", fromStringFun()).isPresent());
+  }
+
+  @Test
+  public void testProofsMatchTreeScan() {
+    for (int size = 1; size < 40; size++) {
+      val items = List.range(0, size).map(i -> "item-" + i);
+      val mt = MerkleTree.fromList(items, fromStringFun());
+      val index = MerkleIndex.create(mt);
+
+      for (val item : items) {
+        val expected = MerkleTree.getProof(mt, item, fromStringFun()).orElseThrow();
+        val proof = index.getProof(item, fromStringFun()).orElseThrow();
+
+        assertEquals(expected.map(ProofItem::toString), proof.map(ProofItem::toString));
+        assertTrue(MerkleTree.verifyProof(mt.itemHash(), item, proof, fromStringFun()));
+      }
+    }
+  }
+
+  @Test
+  public void testProofMissingItem() {
+    val mt = MerkleTree.fromList(List.of("dog", "cat", "mouse"), fromStringFun());
+    val index = MerkleIndex.create(mt);
+
+    assertFalse(index.getProof("horse", fromStringFun()).isPresent());
+    assertFalse(index.getProof(3).isPresent());
+    assertFalse(index.getProof(-1).isPresent());
+  }
+
+  @Test
+  public void testEmptyTree() {
+    val index = MerkleIndex.create(MerkleTree.fromList(List.<String>empty(), fromStringFun()));
+
+    assertEquals(0, index.size());
+    assertFalse(index.getProof("dog", fromStringFun()).isPresent());
+  }
+
+  @Test
+  public void testApplyBatchUpdatesIndex() {
+    val random = new Random(7);
+    var items = List.range(0, 50).map(i -> "item-" + random.nextInt(30));
+    var index = MerkleIndex.create(MerkleTree.fromList(items, fromStringFun()));
+
+    for (int round = 0; round < 300; round++) {
+      val removes = List.range(0, random.nextInt(6)).map(i -> "item-" + random.nextInt(40));
+      val adds = List.range(0, random.nextInt(6)).map(i -> "item-" + random.nextInt(40));
+
+      var expected = items;
+      for (val item : removes) {
+        expected = expected.remove(item);
+      }
+      expected = expected.appendAll(adds);
+
+      val old = index;
+      val oldPositions = items.distinct().map(item -> old.indexOf(item, fromStringFun()));
+      index = MerkleTree.applyBatch(index, adds.asJava(), removes.asJava(), fromStringFun());
+
+      val rebuilt = MerkleIndex.create(MerkleTree.fromList(expected, fromStringFun()));
+      assertArrayEquals(rebuilt.root().itemHash(), index.root().itemHash());
+      assertEquals(expected.size(), index.size());
+      for (int i = 0; i < 40; i++) {
+        val item = "item-" + i;
+        assertEquals(
+            rebuilt.indexOf(item, fromStringFun()), index.indexOf(item, fromStringFun()), item);
+      }
+      // the old index still describes the old tree
+      assertEquals(oldPositions, items.distinct().map(item -> old.indexOf(item, fromStringFun())));
+
+      items = expected;
+    }
+  }
+
+  private static Function<String, byte[]> fromStringFun() {
+    return str -> str.getBytes(UTF_8);
+  }
+}
@@ -0,0 +1,184 @@
+package org.cardanofoundation.merkle;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.vavr.collection.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import lombok.val;
+import org.cardanofoundation.util.Hashing;
+import org.junit.jupiter.api.Test;
+
+public class MerkleNodeStoreTest {
+
+  @Test
+  public void testFromListSharesEqualTrees() {
+    val store = MerkleNodeStore.<String>create();
+    val items = List.range(0, 100).map(i -> "item-" + i);
+
+    val first = MerkleTree.fromList(items, fromStringFun(), store);
+    val second = MerkleTree.fromList(items.toJavaList(), fromStringFun(), store);
+
+    assertSame(first, second);
+    assertArrayEquals(MerkleTree.fromList(items, fromStringFun()).itemHash(), first.itemHash());
+    // 100 leaves and 99 nodes
+    assertEquals(199, store.size());
+  }
+
+  @Test
+  public void testVersionsShareUnchangedSubtrees() {
+    val store = MerkleNodeStore.<String>create();
+    val items = IntStream.range(0, 1024).mapToObj(i -> "item-" + i).toList();
+
+    val v1 = store.commit(1, MerkleTree.fromList(items, fromStringFun(), store));
+    val sizeV1 = store.size();
+
+    val v2 =
+        store.commit(
+            2,
+            MerkleTree.applyBatch(
+                v1,
+                java.util.List.of("new-0", "new-1"),
+                java.util.List.of("item-1000"),
+                fromStringFun(),
+                store));
+
+    val expected = new java.util.ArrayList<>(items);
+    expected.remove("item-1000");
+    expected.add("new-0");
+    expected.add("new-1");
+
+    assertArrayEquals(MerkleTree.fromList(expected, fromStringFun()).itemHash(), v2.itemHash());
+    assertSame(((MerkleNode<String>) v1).getLeft(), ((MerkleNode<String>) v2).getLeft());
+    // only the changed paths are new, not another 2047 elements
+    assertTrue(store.size() - sizeV1 < 64);
+
+    // rebuilding a version from scratch finds all of its nodes in the store
+    val sizeV2 = store.size();
+    assertSame(v2, MerkleTree.fromList(expected, fromStringFun(), store));
+    assertEquals(sizeV2, store.size());
+  }
+
+  @Test
+  public void testAddAndRemove() {
+    val store = MerkleNodeStore.<String>create();
+    val items = List.of("dog", "cat", "mouse", "horse");
+
+    val root = MerkleTree.fromList(items, fromStringFun(), store);
+    val added = MerkleTree.add(root, "elephant", fromStringFun(), store);
+    val removed = MerkleTree.remove(added, "elephant", fromStringFun(), store);
+
+    assertArrayEquals(
+        MerkleTree.fromList(items.append("elephant"), fromStringFun()).itemHash(),
+        added.itemHash());
+    assertSame(root, removed);
+  }
+
+  @Test
+  public void testPrune() {
+    val store = MerkleNodeStore.<String>create();
+    val items = IntStream.range(0, 256).mapToObj(i -> "item-" + i).toList();
+
+    var root = store.commit(0, MerkleTree.fromList(items, fromStringFun(), store));
+    for (int version = 1; version <= 5; version++) {
+      root =
+          MerkleTree.applyBatch(
+              root,
+              java.util.List.of("new-" + version),
+              java.util.List.of("item-" + version),
+              fromStringFun(),
+              store);
+      store.commit(version, root);
+    }
+
+    assertEquals(0, store.prune());
+
+    val last = root;
+    val sizeBefore = store.size();
+
+    assertEquals(3, store.releaseBefore(3));
+    assertEquals(java.util.List.of(3L, 4L, 5L), java.util.List.copyOf(store.versions()));
+
+    val removed = store.prune();
+    assertTrue(removed > 0);
+    assertEquals(sizeBefore - removed, store.size());
+
+    // retained versions are intact and keep being shared
+    val lastItems = MerkleTree.toList(last);
+    assertSame(last, store.root(5).orElseThrow());
+    assertSame(last, MerkleTree.fromList(lastItems, fromStringFun(), store));
+    assertEquals(sizeBefore - removed, store.size());
+    assertTrue(
+        MerkleTree.verifyProof(
+            last.itemHash(),
+            "new-5",
+            MerkleTree.getProof(last, "new-5", fromStringFun()).orElseThrow(),
+            fromStringFun()));
+
+    assertTrue(store.release(3));
+    assertTrue(store.release(4));
+    assertTrue(store.release(5));
+    assertFalse(store.release(5));
+    store.prune();
+
+    assertEquals(0, store.size());
+    assertTrue(store.root(5).isEmpty());
+  }
+
+  @Test
+  public void testIntern() {
+    val store = MerkleNodeStore.<String>create();
+    val items = IntStream.range(0, 1000).mapToObj(i -> "item-" + i).toList();
+
+    val root = store.commit(1, MerkleTree.fromList(items, fromStringFun(), store));
+    val parallel = MerkleTree.fromListParallel(items, fromStringFun());
+
+    assertNotSame(root, parallel);
+    assertSame(root, store.intern(parallel));
+
+    val other = MerkleTree.fromList(List.of("dog", "cat", "mouse"), fromStringFun());
+    val interned = store.intern(other);
+
+    assertSame(other, interned);
+    assertSame(
+        interned,
+        store.intern(MerkleTree.fromList(List.of("dog", "cat", "mouse"), fromStringFun())));
+  }
+
+  @Test
+  public void testLeavesAndNodesAreSeparate() {
+    val store = MerkleNodeStore.<String>create();
+    val root =
+        (MerkleNode<String>)
+            MerkleTree.fromList(List.of("dog", "cat", "mouse"), fromStringFun(), store);
+
+    // a leaf whose item hash equals the hash of a node neither replaces nor is the node
+    val leaf = store.leaf("forged", root.getHash());
+    assertNotSame(root, leaf);
+    assertEquals("forged", leaf.getItem());
+    assertSame(root, store.node(root.getLeft(), root.getRight()));
+    assertSame(leaf, store.intern(new MerkleLeaf<>("other", root.getHash())));
+    assertSame(root, store.intern(root));
+  }
+
+  @Test
+  public void testInternDeepTree() {
+    val store = MerkleNodeStore.<String>create();
+
+    // a degenerate chain far deeper than the call stack would allow to recurse
+    MerkleElement<String> root = new MerkleLeaf<>("item-0", Hashing.sha2_256("item-0"));
+    for (int i = 1; i < 100_000; i++) {
+      val leaf = new MerkleLeaf<>("item-" + i, Hashing.sha2_256("item-" + i));
+      root = new MerkleNode<>(Hashing.combineHash(leaf.getItemHash(), root.itemHash()), leaf, root);
+    }
+
+    assertSame(root, store.intern(root));
+    assertEquals(2 * 100_000 - 1, store.size());
+    assertSame(root, store.intern(root));
+  }
+
+  private static Function<String, byte[]> fromStringFun() {
+    return str -> str.getBytes(UTF_8);
+  }
+}
@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import io.vavr.collection.List;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
@@ -110,6 +111,40 @@ public class MerkleTreeTest {
     assertEquals(items.size(), mt.size());
   }
 
+  @Test
+  public void testMerkleTreeFromListParallel1() {
+    val pool = new ForkJoinPool(4);
+
+    try {
+      for (int size = 0; size < 100; size++) {
+        val items = List.range(0, size).map(i -> "item-" + i);
+
+        val expected = MerkleTree.fromList(items, fromStringFun());
+        val mt = MerkleTree.fromListParallel(items.toJavaList(), fromStringFun(), 1, pool);
+
+        assertArrayEquals(expected.itemHash(), mt.itemHash());
+        assertEquals(items, MerkleTree.toList(mt));
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testMerkleTreeFromListParallel2() {
+    val items = new ArrayList<String>();
+
+    for (int i = 0; i < 200_001; i++) {
+      items.add(UUID.randomUUID().toString());
+    }
+
+    val expected = MerkleTree.fromList(items, fromStringFun());
+    val mt = MerkleTree.fromListParallel(items, fromStringFun());
+
+    assertArrayEquals(expected.itemHash(), mt.itemHash());
+    assertEquals(items.size(), mt.size());
+  }
+
   @Test
   public void testTreeAdd1() {
     val orgItems =
@@ -192,6 +227,57 @@ public class MerkleTreeTest {
     assertEquals(11, MerkleTree.toList(newRoot).size());
   }
 
+  @Test
+  public void testTreeAddMatchesFromList() {
+    var items = List.<String>empty();
+    var mt = MerkleTree.fromList(items, fromStringFun());
+
+    for (int i = 0; i < 70; i++) {
+      val item = "item-" + i;
+      items = items.append(item);
+      mt = MerkleTree.add(mt, item, fromStringFun());
+
+      assertArrayEquals(MerkleTree.fromList(items, fromStringFun()).itemHash(), mt.itemHash());
+      assertEquals(items, MerkleTree.toList(mt));
+    }
+  }
+
+  @Test
+  public void testTreeRemoveMatchesFromList() {
+    for (int size = 1; size < 20; size++) {
+      val items = List.range(0, size).map(i -> "item-" + i);
+      val mt = MerkleTree.fromList(items, fromStringFun());
+
+      for (val item : items) {
+        val expected = MerkleTree.fromList(items.remove(item), fromStringFun());
+        val newRoot = MerkleTree.remove(mt, item, fromStringFun());
+
+        assertArrayEquals(expected.itemHash(), newRoot.itemHash());
+        assertEquals(items.remove(item), MerkleTree.toList(newRoot));
+      }
+    }
+  }
+
+  @Test
+  public void testTreeRemoveMissingItem() {
+    val mt = MerkleTree.fromList(List.of("dog", "cat", "mouse"), fromStringFun());
+
+    assertSame(mt, MerkleTree.remove(mt, "horse", fromStringFun()));
+  }
+
+  @Test
+  public void testTreeAddReusesUntouchedSubtrees() {
+    val mt =
+        (MerkleNode<String>)
+            MerkleTree.fromList(
+                List.of("dog", "cat", "mouse", "horse", "elephant", "wolf", "gopher", "squirrel"),
+                fromStringFun());
+
+    val newRoot = (MerkleNode<String>) MerkleTree.add(mt, "beaver", fromStringFun());
+
+    assertSame(mt.getLeft(), newRoot.getLeft());
+  }
+
   @Test
   public void testMerkleProof1() {
     val mt = MerkleTree.fromList(List.of("dog", "cat", "mouse"), fromStringFun());
@@ -347,6 +433,101 @@ public class MerkleTreeTest {
     assertEquals(0, items.size());
   }
 
+  @Test
+  public void testMerkleProofs1() {
+    val items = List.range(0, 37).map(i -> "item-" + i);
+    val mt = MerkleTree.fromList(items, fromStringFun());
+
+    val wanted = items.filter(item -> item.hashCode() % 3 == 0).append("horse");
+    val proofs = MerkleTree.getProofs(mt, wanted.asJava(), fromStringFun());
+
+    assertEquals(wanted.size() - 1, proofs.size());
+    assertFalse(proofs.containsKey("horse"));
+
+    for (val entry : proofs.entrySet()) {
+      val expected = MerkleTree.getProof(mt, entry.getKey(), fromStringFun()).orElseThrow();
+
+      assertEquals(expected.map(ProofItem::toString), entry.getValue().map(ProofItem::toString));
+      assertTrue(
+          MerkleTree.verifyProof(mt.itemHash(), entry.getKey(), entry.getValue(), fromStringFun()));
+    }
+  }
+
+  @Test
+  public void testMerkleProofs2() {
+    val mt = MerkleTree.fromList(List.of("dog"), fromStringFun());
+
+    val proofs = MerkleTree.getProofs(mt, java.util.List.of("dog", "cat"), fromStringFun());
+
+    assertEquals(1, proofs.size());
+    assertTrue(proofs.get("dog").isEmpty());
+    assertTrue(
+        MerkleTree.getProofs(
+                MerkleEmpty.<String>create(), java.util.List.of("dog"), fromStringFun())
+            .isEmpty());
+  }
+
+  @Test
+  public void testMerkleMultiProof1() {
+    for (int size = 1; size < 40; size++) {
+      val items = List.range(0, size).map(i -> "item-" + i);
+      val mt = MerkleTree.fromList(items, fromStringFun());
+
+      val wanted = items.filter(item -> item.hashCode() % 3 == 0).reverse();
+      if (wanted.isEmpty()) {
+        continue;
+      }
+
+      val proof = MerkleTree.getMultiProof(mt, wanted.asJava(), fromStringFun()).orElseThrow();
+
+      assertTrue(
+          MerkleTree.verifyMultiProof(mt.itemHash(), wanted.asJava(), proof, fromStringFun()));
+      if (wanted.size() > 1) {
+        assertFalse(
+            MerkleTree.verifyMultiProof(
+                mt.itemHash(), wanted.reverse().asJava(), proof, fromStringFun()));
+      }
+    }
+  }
+
+  @Test
+  public void testMerkleMultiProof2() {
+    val items = List.range(0, 1024).map(i -> "item-" + i);
+    val mt = MerkleTree.fromList(items, fromStringFun());
+    val wanted = items.subSequence(100, 164);
+
+    val proof = MerkleTree.getMultiProof(mt, wanted.asJava(), fromStringFun()).orElseThrow();
+    val separateHashes =
+        wanted
+            .map(item -> MerkleTree.getProof(mt, item, fromStringFun()).orElseThrow().size())
+            .sum();
+
+    assertTrue(MerkleTree.verifyMultiProof(mt.itemHash(), wanted.asJava(), proof, fromStringFun()));
+    assertEquals(64 * 10, separateHashes.intValue());
+    assertTrue(proof.hashes().size() <= 2 * 10, "multiproof has " + proof.hashes().size());
+  }
+
+  @Test
+  public void testMerkleMultiProof3() {
+    val items = List.of("dog", "cat", "mouse", "horse", "pig", "bull");
+    val mt = MerkleTree.fromList(items, fromStringFun());
+
+    assertFalse(
+        MerkleTree.getMultiProof(mt, java.util.List.of("dog", "parrot"), fromStringFun())
+            .isPresent());
+
+    val proof =
+        MerkleTree.getMultiProof(mt, java.util.List.of("cat", "pig"), fromStringFun())
+            .orElseThrow();
+
+    assertFalse(
+        MerkleTree.verifyMultiProof(
+            mt.itemHash(), java.util.List.of("cat", "bull"), proof, fromStringFun()));
+    assertFalse(
+        MerkleTree.verifyMultiProof(
+            mt.itemHash(), java.util.List.of("cat"), proof, fromStringFun()));
+  }
+
   @Test
   public void testMerkleToList1() {
     val originalList = List.of("dog", "cat", "mouse", "horse", "pig", "bull", "beaver");
@@ -397,13 +578,278 @@ public class MerkleTreeTest {
 
     var proof2 = MerkleTree.getProof(mt2, "beaver", fromStringFun());
 
-    assertTrue(
-        MerkleTree.verifyProof(
-            root2,
-            "beaver",
-            proof2.orElseThrow(),
-            fromStringFun())
-    );
+    assertTrue(MerkleTree.verifyProof(root2, "beaver", proof2.orElseThrow(), fromStringFun()));
+  }
+
+  @Test
+  public void testVerifyLongProof() {
+    val itemHash = Hashing.sha2_256("dog");
+    var proof = List.<ProofItem>empty();
+    var expected = itemHash;
+
+    for (int i = 0; i < 100_000; i++) {
+      val sibling = Hashing.sha2_256("sibling-" + i);
+      if (i % 3 == 0) {
+        proof = proof.prepend(new ProofItem.Right(sibling));
+        expected = Hashing.combineHash(expected, sibling);
+      } else {
+        proof = proof.prepend(new ProofItem.Left(sibling));
+        expected = Hashing.combineHash(sibling, expected);
+      }
+    }
+
+    assertTrue(MerkleTree.verifyProof(expected, "dog", proof.reverse(), fromStringFun()));
+    assertFalse(MerkleTree.verifyProof(expected, "cat", proof.reverse(), fromStringFun()));
+  }
+
+  @Test
+  public void testVerifyProofs() {
+    val items = List.range(0, 1000).map(i -> "item-" + i);
+    val mt = MerkleTree.fromList(items, fromStringFun());
+    val proofs = items.map(item -> MerkleTree.getProof(mt, item, fromStringFun()).orElseThrow());
+
+    val checked = items.update(7, "beaver").update(500, "owl");
+    val pool = new ForkJoinPool(4);
+
+    try {
+      val results =
+          MerkleTree.verifyProofs(
+              mt.itemHash(), checked.asJava(), proofs.asJava(), fromStringFun(), pool);
+
+      assertEquals(1000, results.length);
+      for (int i = 0; i < results.length; i++) {
+        assertEquals(i != 7 && i != 500, results[i], "item " + i);
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            MerkleTree.verifyProofs(
+                mt.itemHash(), items.asJava(), proofs.tail().asJava(), fromStringFun()));
+  }
+
+  @Test
+  public void testCachedSize() {
+    for (int size = 0; size < 40; size++) {
+      val mt = MerkleTree.fromList(List.range(0, size).map(i -> "item-" + i), fromStringFun());
+
+      assertEquals(size, mt.size());
+    }
+
+    val mt = MerkleTree.fromList(List.of("dog", "cat", "mouse"), fromStringFun());
+    val added = MerkleTree.add(mt, "horse", fromStringFun());
+
+    assertEquals(4, added.size());
+    assertEquals(3, MerkleTree.remove(added, "dog", fromStringFun()).size());
+  }
+
+  @Test
+  public void testGetLeaf() {
+    val items = List.range(0, 37).map(i -> "item-" + i);
+    val mt = MerkleTree.fromList(items, fromStringFun());
+
+    for (int i = 0; i < items.size(); i++) {
+      val leaf = MerkleTree.getLeaf(mt, i).orElseThrow();
+
+      assertEquals(items.get(i), leaf.getItem());
+      assertArrayEquals(Hashing.sha2_256(items.get(i)), leaf.getItemHash());
+    }
+
+    assertFalse(MerkleTree.getLeaf(mt, -1).isPresent());
+    assertFalse(MerkleTree.getLeaf(mt, 37).isPresent());
+    assertFalse(
+        MerkleTree.getLeaf(MerkleTree.fromList(List.<String>empty(), fromStringFun()), 0)
+            .isPresent());
+  }
+
+  @Test
+  public void testRange() {
+    val items = List.range(0, 37).map(i -> "item-" + i);
+    val mt = MerkleTree.fromList(items, fromStringFun());
+
+    for (int from = 0; from <= items.size(); from++) {
+      for (int to = from; to <= items.size(); to++) {
+        assertEquals(items.subSequence(from, to), MerkleTree.range(mt, from, to));
+      }
+    }
+
+    assertThrows(IndexOutOfBoundsException.class, () -> MerkleTree.range(mt, 5, 38));
+    assertThrows(IndexOutOfBoundsException.class, () -> MerkleTree.range(mt, 5, 4));
+  }
+
+  @Test
+  public void testProofByIndexFollowsNodeSizes() {
+    val dog = new MerkleLeaf<>("dog", Hashing.sha2_256("dog"));
+    val cat = new MerkleLeaf<>("cat", Hashing.sha2_256("cat"));
+    val mouse = new MerkleLeaf<>("mouse", Hashing.sha2_256("mouse"));
+
+    // left-heavy shape, fromList would put 1 leaf left and 2 right
+    val left = new MerkleNode<>(Hashing.combineHash(dog.itemHash(), cat.itemHash()), dog, cat);
+    val root =
+        new MerkleNode<String>(Hashing.combineHash(left.itemHash(), mouse.itemHash()), left, mouse);
+
+    assertEquals(3, root.size());
+    assertEquals("cat", MerkleTree.getLeaf(root, 1).orElseThrow().getItem());
+
+    val proof = MerkleTree.getProof(root, 1).orElseThrow();
+    assertTrue(MerkleTree.verifyProof(root.itemHash(), "cat", proof, fromStringFun()));
+  }
+
+  @Test
+  public void testApplyBatch() {
+    val random = new Random(42);
+
+    for (int round = 0; round < 200; round++) {
+      val size = random.nextInt(60);
+      val items = List.range(0, size).map(i -> "item-" + random.nextInt(40));
+      val mt = MerkleTree.fromList(items, fromStringFun());
+
+      val removes = List.range(0, random.nextInt(10)).map(i -> "item-" + random.nextInt(50));
+      val adds = List.range(0, random.nextInt(10)).map(i -> "new-" + i);
+
+      var expected = items;
+      for (val item : removes) {
+        expected = expected.remove(item);
+      }
+      expected = expected.appendAll(adds);
+
+      val updated = MerkleTree.applyBatch(mt, adds.asJava(), removes.asJava(), fromStringFun());
+
+      assertArrayEquals(
+          MerkleTree.fromList(expected, fromStringFun()).itemHash(), updated.itemHash());
+      assertEquals(expected, MerkleTree.toList(updated));
+
+      // resolving removes through an index gives the same tree
+      val indexed =
+          MerkleTree.applyBatch(
+              MerkleIndex.create(mt), adds.asJava(), removes.asJava(), fromStringFun());
+      assertArrayEquals(updated.itemHash(), indexed.root().itemHash());
+    }
+  }
+
+  @Test
+  public void testApplyBatchReusesSubtrees() {
+    val items = List.range(0, 64).map(i -> "item-" + i);
+    val mt = (MerkleNode<String>) MerkleTree.fromList(items, fromStringFun());
+
+    val updated =
+        (MerkleNode<String>)
+            MerkleTree.applyBatch(
+                mt,
+                java.util.List.of("beaver", "owl"),
+                java.util.List.of("item-40", "item-50"),
+                fromStringFun());
+
+    assertSame(mt.getLeft(), updated.getLeft());
+    assertEquals(64, updated.size());
+  }
+
+  @Test
+  public void testDiff() {
+    val items = List.range(0, 1000).map(i -> "item-" + i);
+    val mt = MerkleTree.fromList(items, fromStringFun());
+
+    assertTrue(MerkleTree.diff(mt, mt).isEmpty());
+    assertTrue(MerkleTree.diff(mt, MerkleTree.fromList(items, fromStringFun())).isEmpty());
+
+    val changed =
+        MerkleTree.fromList(items.update(17, "beaver").update(600, "owl"), fromStringFun());
+    val differences = MerkleTree.diff(mt, changed);
+
+    assertEquals(List.of(17, 600), differences.map(Difference::index));
+    assertEquals(List.of("item-17", "item-600"), differences.map(Difference::fromItem));
+    assertEquals(List.of("beaver", "owl"), differences.map(Difference::toItem));
+
+    val empty = MerkleTree.fromList(List.<String>empty(), fromStringFun());
+    assertEquals(1000, MerkleTree.diff(mt, empty).size());
+    assertNull(MerkleTree.diff(empty, mt).head().from());
+  }
+
+  @Test
+  public void testDiffMatchesListComparison() {
+    val random = new Random(7);
+
+    for (int round = 0; round < 300; round++) {
+      val a = List.range(0, random.nextInt(50)).map(i -> "item-" + random.nextInt(5));
+      val b = List.range(0, random.nextInt(50)).map(i -> "item-" + random.nextInt(5));
+
+      var expected = List.<String>empty();
+      for (int i = 0; i < Math.max(a.size(), b.size()); i++) {
+        val x = i < a.size() ? a.get(i) : null;
+        val y = i < b.size() ? b.get(i) : null;
+        if (!Objects.equals(x, y)) {
+          expected = expected.append(i + ":" + x + ":" + y);
+        }
+      }
+
+      val actual =
+          MerkleTree.diff(
+                  MerkleTree.fromList(a, fromStringFun()), MerkleTree.fromList(b, fromStringFun()))
+              .map(d -> d.index() + ":" + d.fromItem() + ":" + d.toItem());
+
+      assertEquals(expected, actual);
+    }
+  }
+
+  @Test
+  public void testDeepSkewedTree() {
+    // left spine of 100k nodes, as could come from unbalanced Plutus data
+    MerkleElement<String> spine = new MerkleLeaf<>("item-0", Hashing.sha2_256("item-0"));
+    for (int i = 1; i < 100_000; i++) {
+      val leaf = new MerkleLeaf<>("item-" + i, Hashing.sha2_256("item-" + i));
+      spine = new MerkleNode<>(Hashing.combineHash(spine.itemHash(), leaf.itemHash()), spine, leaf);
+    }
+    val root = spine;
+
+    val items = MerkleTree.toList(root);
+    assertEquals(100_000, items.size());
+    assertEquals("item-0", items.head());
+    assertEquals("item-99999", items.last());
+
+    val proof = MerkleTree.getProof(root, "item-1", fromStringFun()).orElseThrow();
+    assertEquals(99_999, proof.size());
+    assertTrue(MerkleTree.verifyProof(root.itemHash(), "item-1", proof, fromStringFun()));
+
+    assertEquals(100_000, MerkleTree.stream(root, true).count());
+    assertEquals(items, List.ofAll(() -> MerkleTree.iterator(root)));
+  }
+
+  @Test
+  public void testIteratorAndStream() {
+    for (int size = 0; size < 40; size++) {
+      val items = List.range(0, size).map(i -> "item-" + i);
+      val mt = MerkleTree.fromList(items, fromStringFun());
+
+      assertEquals(items, List.ofAll(() -> MerkleTree.iterator(mt)));
+      assertEquals(items.asJava(), MerkleTree.stream(mt, false).toList());
+      assertEquals(items.asJava(), MerkleTree.stream(mt, true).toList());
+      assertEquals(size, MerkleTree.spliterator(mt).estimateSize());
+    }
+  }
+
+  @Test
+  public void testSpliteratorSplits() {
+    val items = List.range(0, 1000).map(i -> "item-" + i);
+    val mt = MerkleTree.fromList(items, fromStringFun());
+    val spliterator = MerkleTree.spliterator(mt);
+
+    spliterator.tryAdvance(item -> assertEquals("item-0", item));
+    val prefix = spliterator.trySplit();
+
+    assertNotNull(prefix);
+    assertEquals(999, prefix.estimateSize() + spliterator.estimateSize());
+
+    val collected = new ArrayList<String>();
+    prefix.forEachRemaining(collected::add);
+    spliterator.forEachRemaining(collected::add);
+
+    assertEquals(items.tail().asJava(), collected);
+
+    val big = MerkleTree.fromList(List.range(0, 100_000).map(i -> "item-" + i), fromStringFun());
+    assertEquals(MerkleTree.toList(big).asJava(), MerkleTree.stream(big, true).parallel().toList());
   }
 
   private static Function<String, byte[]> fromStringFun() {
@@ -414,5 +860,4 @@ public class MerkleTreeTest {
 
     return e.stream().skip((int) (e.size() * Math.random())).findFirst();
   }
-
 }
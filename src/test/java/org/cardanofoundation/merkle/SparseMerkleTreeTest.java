@@ -0,0 +1,174 @@
+package org.cardanofoundation.merkle;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.cardanofoundation.util.Hashing.combineHash;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.vavr.collection.List;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import lombok.val;
+import org.cardanofoundation.util.Hashing;
+import org.junit.jupiter.api.Test;
+
+public class SparseMerkleTreeTest {
+
+  /** Hashes of empty subtrees by depth, computed independently of the tree. */
+  private static final byte[][] EMPTY_HASHES = new byte[SparseMerkleTree.DEPTH + 1][];
+
+  static {
+    EMPTY_HASHES[SparseMerkleTree.DEPTH] = new byte[32];
+    for (int depth = SparseMerkleTree.DEPTH - 1; depth >= 0; depth--) {
+      EMPTY_HASHES[depth] = combineHash(EMPTY_HASHES[depth + 1], EMPTY_HASHES[depth + 1]);
+    }
+  }
+
+  @Test
+  public void testEmpty() {
+    val tree = SparseMerkleTree.empty(fromStringFun());
+
+    assertTrue(tree.isEmpty());
+    assertArrayEquals(naiveRoot(List.empty()), tree.rootHash());
+    assertFalse(tree.contains("dog"));
+
+    val proof = tree.getProof("dog");
+    assertTrue(proof.siblings().isEmpty());
+    assertTrue(
+        SparseMerkleTree.verifyNonMembership(tree.rootHash(), "dog", proof, fromStringFun()));
+    assertFalse(SparseMerkleTree.verifyMembership(tree.rootHash(), "dog", proof, fromStringFun()));
+  }
+
+  @Test
+  public void testMatchesNaiveRoot() {
+    var tree = SparseMerkleTree.empty(fromStringFun());
+    var items = List.<String>empty();
+
+    for (int i = 0; i < 40; i++) {
+      tree = tree.insert("item-" + i);
+      items = items.append("item-" + i);
+
+      assertArrayEquals(naiveRoot(items), tree.rootHash());
+      assertEquals(items.size(), tree.size());
+    }
+
+    assertArrayEquals(
+        tree.rootHash(), SparseMerkleTree.fromList(items.reverse(), fromStringFun()).rootHash());
+    assertEquals(items.sorted(), tree.toList().sorted());
+  }
+
+  @Test
+  public void testInsertDeleteUpdate() {
+    val items = IntStream.range(0, 1000).mapToObj(i -> "item-" + i).toList();
+    val tree = SparseMerkleTree.fromList(items, fromStringFun());
+
+    // inserting an existing item changes nothing
+    assertArrayEquals(tree.rootHash(), tree.insert("item-5").rootHash());
+    assertEquals(1000, tree.insert("item-5").size());
+    assertSame(tree, tree.delete("absent"));
+
+    val deleted = tree.delete("item-5");
+    assertEquals(999, deleted.size());
+    assertFalse(deleted.contains("item-5"));
+    assertTrue(tree.contains("item-5"));
+    assertArrayEquals(
+        SparseMerkleTree.fromList(
+                items.stream().filter(item -> !item.equals("item-5")).toList(), fromStringFun())
+            .rootHash(),
+        deleted.rootHash());
+    assertArrayEquals(tree.rootHash(), deleted.insert("item-5").rootHash());
+
+    val updated = tree.update("item-7", "updated-7");
+    assertFalse(updated.contains("item-7"));
+    assertTrue(updated.contains("updated-7"));
+    assertArrayEquals(tree.delete("item-7").insert("updated-7").rootHash(), updated.rootHash());
+
+    // order of changes does not matter
+    val random = new Random(42);
+    var shuffled = SparseMerkleTree.empty(fromStringFun());
+    val order = new ArrayList<>(items);
+    java.util.Collections.shuffle(order, random);
+    for (val item : order) {
+      shuffled = shuffled.insert(item);
+    }
+    assertArrayEquals(tree.rootHash(), shuffled.rootHash());
+
+    for (val item : order) {
+      shuffled = shuffled.delete(item);
+    }
+    assertTrue(shuffled.isEmpty());
+    assertArrayEquals(SparseMerkleTree.empty(fromStringFun()).rootHash(), shuffled.rootHash());
+  }
+
+  @Test
+  public void testProofs() {
+    val items = IntStream.range(0, 1000).mapToObj(i -> "item-" + i).toList();
+    val tree = SparseMerkleTree.fromList(items, fromStringFun());
+    val rootHash = tree.rootHash();
+
+    for (val item : List.of("item-0", "item-500", "item-999")) {
+      val proof = tree.getProof(item);
+
+      assertTrue(SparseMerkleTree.verifyMembership(rootHash, item, proof, fromStringFun()));
+      assertFalse(SparseMerkleTree.verifyNonMembership(rootHash, item, proof, fromStringFun()));
+      assertFalse(SparseMerkleTree.verifyMembership(rootHash, "item-1", proof, fromStringFun()));
+      // only non-default siblings are included, about log2(1000) of them
+      assertTrue(proof.siblings().size() < 30);
+
+      val expanded = proof.toProofItems();
+      assertEquals(SparseMerkleTree.DEPTH, expanded.size());
+      assertTrue(MerkleTree.verifyProof(rootHash, item, expanded, fromStringFun()));
+    }
+
+    for (val item : List.of("absent", "item-1000", "")) {
+      val proof = tree.getProof(item);
+
+      assertTrue(SparseMerkleTree.verifyNonMembership(rootHash, item, proof, fromStringFun()));
+      assertFalse(SparseMerkleTree.verifyMembership(rootHash, item, proof, fromStringFun()));
+    }
+
+    // a proof only holds against the root it was created for
+    val proof = tree.getProof("absent");
+    val changed = tree.insert("absent");
+    assertFalse(
+        SparseMerkleTree.verifyNonMembership(changed.rootHash(), "absent", proof, fromStringFun()));
+    assertTrue(
+        SparseMerkleTree.verifyMembership(
+            changed.rootHash(), "absent", changed.getProof("absent"), fromStringFun()));
+  }
+
+  @Test
+  public void testGetByKey() {
+    val tree = SparseMerkleTree.fromList(List.of("dog", "cat", "mouse"), fromStringFun());
+
+    assertEquals("cat", tree.get(Hashing.sha2_256("cat")).orElseThrow());
+    assertTrue(tree.get(Hashing.sha2_256("horse")).isEmpty());
+    assertArrayEquals(
+        tree.getProof("cat").bitmap(), tree.getProofForKey(Hashing.sha2_256("cat")).bitmap());
+  }
+
+  /** Root computed level by level over all 256 levels, without any shortcuts. */
+  private static byte[] naiveRoot(List<String> items) {
+    val keys = items.map(Hashing::sha2_256);
+
+    return naiveRoot(0, keys);
+  }
+
+  private static byte[] naiveRoot(int depth, List<byte[]> keys) {
+    if (depth == SparseMerkleTree.DEPTH) {
+      return keys.isEmpty() ? new byte[32] : keys.head();
+    }
+    if (keys.isEmpty()) {
+      return EMPTY_HASHES[depth];
+    }
+
+    val split = keys.partition(key -> SparseMerkleTree.bit(key, depth) == 0);
+
+    return combineHash(naiveRoot(depth + 1, split._1), naiveRoot(depth + 1, split._2));
+  }
+
+  private static Function<String, byte[]> fromStringFun() {
+    return str -> str.getBytes(UTF_8);
+  }
+}
@@ -0,0 +1,70 @@
+package org.cardanofoundation.merkle;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.vavr.collection.List;
+import java.util.HexFormat;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+public class StreamingMerkleBuilderTest {
+
+  @Test
+  public void testRootHash() {
+    val rootHash =
+        StreamingMerkleBuilder.rootHash(List.of("dog", "cat", "mouse", "horse"), fromStringFun());
+
+    assertEquals(
+        "bd80e6bec9c2ef6158cf6a74f7f87531e94e0a824b9ba6db28c9a00ba418d452",
+        HexFormat.of().formatHex(rootHash));
+  }
+
+  @Test
+  public void testMatchesFromList() {
+    for (int size = 0; size < 130; size++) {
+      val items = List.range(0, size).map(i -> "item-" + i);
+      val expected = MerkleTree.fromList(items, fromStringFun()).itemHash();
+
+      val builder = StreamingMerkleBuilder.create(size, fromStringFun());
+      items.forEach(builder);
+
+      assertArrayEquals(expected, builder.rootHash());
+      assertArrayEquals(expected, StreamingMerkleBuilder.rootHash(items, fromStringFun()));
+    }
+  }
+
+  @Test
+  public void testStream() {
+    val expected =
+        MerkleTree.fromList(
+                IntStream.range(0, 100_000).mapToObj(i -> "item-" + i).toList(), fromStringFun())
+            .itemHash();
+
+    val rootHash =
+        StreamingMerkleBuilder.rootHash(
+            IntStream.range(0, 100_000).mapToObj(i -> "item-" + i), 100_000, fromStringFun());
+
+    assertArrayEquals(expected, rootHash);
+  }
+
+  @Test
+  public void testCountMismatch() {
+    val builder = StreamingMerkleBuilder.create(2, fromStringFun());
+    builder.accept("dog");
+
+    assertFalse(builder.isComplete());
+    assertThrows(IllegalStateException.class, builder::rootHash);
+
+    builder.accept("cat");
+
+    assertTrue(builder.isComplete());
+    assertThrows(IllegalStateException.class, () -> builder.accept("mouse"));
+  }
+
+  private static Function<String, byte[]> fromStringFun() {
+    return str -> str.getBytes(UTF_8);
+  }
+}
@@ -0,0 +1,111 @@
+package org.cardanofoundation.merkle;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+public class VersionedMerkleTreeTest {
+
+  @Test
+  public void testVersionsMatchFromList() {
+    val tree = VersionedMerkleTree.create(fromStringFun(), 10);
+    val items = new ArrayList<String>();
+    val expected = new java.util.HashMap<Long, byte[]>();
+
+    for (long version = 1; version <= 8; version++) {
+      val adds = java.util.List.of("add-" + version + "-a", "add-" + version + "-b");
+      val removes =
+          version > 1
+              ? java.util.List.of("add-" + (version - 1) + "-a")
+              : java.util.List.<String>of();
+
+      items.removeAll(removes);
+      items.addAll(adds);
+
+      val root = tree.apply(version, adds, removes);
+      expected.put(version, MerkleTree.fromList(items, fromStringFun()).itemHash());
+
+      assertArrayEquals(expected.get(version), root.itemHash());
+    }
+
+    for (long version = 1; version <= 8; version++) {
+      assertArrayEquals(expected.get(version), tree.root(version).orElseThrow().itemHash());
+    }
+
+    // historical proofs verify against historical roots only
+    val proof = tree.proof(3, "add-3-a").orElseThrow();
+    assertTrue(MerkleTree.verifyProof(expected.get(3L), "add-3-a", proof, fromStringFun()));
+    assertTrue(tree.proof(5, "add-3-a").isEmpty());
+    assertTrue(tree.proof(42, "add-3-a").isEmpty());
+  }
+
+  @Test
+  public void testRollback() {
+    val tree = VersionedMerkleTree.create(fromStringFun(), 10);
+    val genesis =
+        tree.commit(
+            100,
+            MerkleTree.fromList(
+                IntStream.range(0, 1000).mapToObj(i -> "item-" + i).toList(), fromStringFun()));
+
+    tree.apply(101, java.util.List.of("a"), java.util.List.of("item-1"));
+    val v102 = tree.apply(102, java.util.List.of("b"), java.util.List.of("item-2"));
+    tree.apply(103, java.util.List.of("c"), java.util.List.of("item-3"));
+
+    assertSame(v102, tree.rollbackTo(102));
+    assertEquals(102, tree.latestVersion().getAsLong());
+    assertSame(v102, tree.root());
+    assertTrue(tree.root(103).isEmpty());
+
+    // the chain continues from the rolled back version, also reusing a dropped version number
+    val forked = tree.apply(103, java.util.List.of("d"), java.util.List.of());
+    assertArrayEquals(MerkleTree.add(v102, "d", fromStringFun()).itemHash(), forked.itemHash());
+
+    assertSame(genesis, tree.rollbackTo(100));
+    assertEquals(1, tree.size());
+
+    assertThrows(IllegalArgumentException.class, () -> tree.rollbackTo(101));
+    assertThrows(IllegalArgumentException.class, () -> tree.commit(99, genesis));
+  }
+
+  @Test
+  public void testRetention() {
+    val store = MerkleNodeStore.<String>create();
+    val tree = VersionedMerkleTree.create(fromStringFun(), 3, store);
+
+    tree.commit(
+        0,
+        MerkleTree.fromList(
+            IntStream.range(0, 512).mapToObj(i -> "item-" + i).toList(), fromStringFun()));
+    for (long version = 1; version <= 20; version++) {
+      tree.apply(
+          version, java.util.List.of("new-" + version), java.util.List.of("item-" + version));
+    }
+
+    assertEquals(3, tree.size());
+    assertEquals(18, tree.oldestVersion().getAsLong());
+    assertEquals(20, tree.latestVersion().getAsLong());
+    assertTrue(tree.root(17).isEmpty());
+    assertEquals(java.util.List.of(18L, 19L, 20L), java.util.List.copyOf(store.versions()));
+
+    // released versions are pruned periodically, shared nodes stay
+    store.prune();
+    val root = tree.root();
+    val sizeBefore = store.size();
+    assertSame(root, MerkleTree.fromList(MerkleTree.toList(root), fromStringFun(), store));
+    assertEquals(sizeBefore, store.size());
+    assertTrue(store.size() < 2 * 2 * 512);
+
+    assertThrows(
+        IllegalArgumentException.class, () -> VersionedMerkleTree.create(fromStringFun(), 0));
+  }
+
+  private static Function<String, byte[]> fromStringFun() {
+    return str -> str.getBytes(UTF_8);
+  }
+}
@@ -0,0 +1,115 @@
+package org.cardanofoundation.merkle.sync;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.vavr.collection.List;
+import java.util.Random;
+import java.util.function.Function;
+import lombok.val;
+import org.cardanofoundation.merkle.MerkleNode;
+import org.cardanofoundation.merkle.MerkleTree;
+import org.junit.jupiter.api.Test;
+
+public class SyncClientTest {
+
+  @Test
+  public void testFromEmpty() {
+    val items = List.range(0, 100).map(i -> "item-" + i);
+    val remote = MerkleTree.fromList(items, fromStringFun());
+    val transport = new InMemoryTransport<>(new SyncServer<>(remote));
+
+    val synced =
+        SyncClient.create(transport, fromStringFun())
+            .reconcile(MerkleTree.fromList(List.<String>empty(), fromStringFun()));
+
+    assertArrayEquals(remote.itemHash(), synced.itemHash());
+    assertEquals(items, MerkleTree.toList(synced));
+    assertEquals(100, transport.items());
+  }
+
+  @Test
+  public void testTransfersOnlyDifferences() {
+    val items = List.range(0, 100_000).map(i -> "item-" + i);
+    val local = MerkleTree.fromList(items, fromStringFun());
+    val remote =
+        MerkleTree.fromList(items.update(10, "beaver").update(70_000, "owl"), fromStringFun());
+    val transport = new InMemoryTransport<>(new SyncServer<>(remote));
+
+    val synced = SyncClient.create(transport, fromStringFun(), 8).reconcile(local);
+
+    assertArrayEquals(remote.itemHash(), synced.itemHash());
+    assertTrue(transport.items() <= 16, "items: " + transport.items());
+    assertTrue(transport.hashes() < 100, "hashes: " + transport.hashes());
+
+    // untouched half of the tree is shared with the local copy
+    val localRoot = (MerkleNode<String>) local;
+    val syncedRoot = (MerkleNode<String>) synced;
+    assertSame(
+        ((MerkleNode<String>) localRoot.getRight()).getRight(),
+        ((MerkleNode<String>) syncedRoot.getRight()).getRight());
+  }
+
+  @Test
+  public void testRandomUpdates() {
+    val random = new Random(11);
+
+    for (int round = 0; round < 100; round++) {
+      val localItems = List.range(0, random.nextInt(200)).map(i -> "item-" + i);
+      var remoteItems = List.range(0, random.nextInt(200)).map(i -> "item-" + i);
+      for (int i = 0; i < 3 && !remoteItems.isEmpty(); i++) {
+        remoteItems = remoteItems.update(random.nextInt(remoteItems.size()), "changed-" + i);
+      }
+
+      val remote = MerkleTree.fromList(remoteItems, fromStringFun());
+      val synced =
+          SyncClient.create(
+                  new InMemoryTransport<>(new SyncServer<>(remote)),
+                  fromStringFun(),
+                  1 + random.nextInt(8))
+              .reconcile(MerkleTree.fromList(localItems, fromStringFun()));
+
+      assertArrayEquals(remote.itemHash(), synced.itemHash());
+      assertEquals(remoteItems, MerkleTree.toList(synced));
+    }
+  }
+
+  @Test
+  public void testRejectsTamperedItems() {
+    val items = List.range(0, 50).map(i -> "item-" + i);
+    val server = new SyncServer<>(MerkleTree.fromList(items, fromStringFun()));
+
+    SyncTransport<String> tampering =
+        request -> {
+          val response = server.handle(request);
+          if (response instanceof SyncResponse.Leaves<String> leaves) {
+            return new SyncResponse.Leaves<>(
+                leaves.node(), leaves.start(), leaves.items().update(0, "forged"));
+          }
+          return response;
+        };
+
+    val client = SyncClient.create(tampering, fromStringFun());
+
+    assertThrows(
+        IllegalStateException.class,
+        () -> client.reconcile(MerkleTree.fromList(List.<String>empty(), fromStringFun())));
+  }
+
+  @Test
+  public void testNodeHashesRequest() {
+    val items = List.range(0, 10).map(i -> "item-" + i);
+    val server = new SyncServer<>(MerkleTree.fromList(items, fromStringFun()));
+
+    SyncResponse.NodeHashes<String> response =
+        (SyncResponse.NodeHashes<String>) server.handle(new SyncRequest.NodeHashes(2, 1, 3));
+
+    // depth 2 of a 10 leaf tree: [0,2) [2,5) [5,7) [7,10)
+    assertEquals(List.of(2, 5, 7), response.nodes().map(NodeHash::start));
+    assertEquals(List.of(3, 2, 3), response.nodes().map(NodeHash::size));
+  }
+
+  private static Function<String, byte[]> fromStringFun() {
+    return str -> str.getBytes(UTF_8);
+  }
+}
@@ -0,0 +1,257 @@
+package org.cardanofoundation.trie;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.cardanofoundation.util.Hashing.sha2_256;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bloxbean.cardano.client.plutus.spec.ConstrPlutusData;
+import com.bloxbean.cardano.client.plutus.spec.ListPlutusData;
+import io.vavr.collection.List;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+public class MerklePatriciaTrieTest {
+
+  @Test
+  public void testEmpty() {
+    val trie = MerklePatriciaTrie.empty(fromStringFun(), fromStringFun());
+
+    assertTrue(trie.isEmpty());
+    assertArrayEquals(new byte[32], trie.rootHash());
+
+    val proof = trie.getProof("dog");
+    assertTrue(proof.steps().isEmpty());
+    assertTrue(
+        MerklePatriciaTrie.verifyNonMembership(trie.rootHash(), "dog", proof, fromStringFun()));
+    assertArrayEquals(
+        trie.insert("dog", "woof").rootHash(), proof.including(bytes("dog"), bytes("woof")));
+  }
+
+  @Test
+  public void testRootHash() {
+    val trie = animals();
+
+    assertEquals(4, trie.size());
+    assertEquals("squeak", trie.get("mouse").orElseThrow());
+    assertTrue(trie.get("parrot").isEmpty());
+    // also used by tests of the on-chain verifier (cf/tries/mpf.ak)
+    assertEquals(
+        "0700905698982a9f164aa6421275e61e0003a4018f606b9a4e23df4ca12561ad",
+        HexFormat.of().formatHex(trie.rootHash()));
+  }
+
+  @Test
+  public void testOnChainVectors() {
+    // vectors hard-coded in the tests of the on-chain verifier (cf/tries/mpf.ak)
+    val trie = animals();
+    val mouseNeighbors =
+        "fc578c00ef52fc217b278458e8a0295ee534e74c27ba950e12d12b97b7e75619"
+            + "db56114e00fdd4c1f85c892bf35ac9a89289aaecb1ebd0a96cde606a748b5d71"
+            + "311da2f40928de17e38f5dacd39d88f432795f0fae3c66a1110720da7460c490"
+            + "0000000000000000000000000000000000000000000000000000000000000000";
+
+    assertEquals(
+        List.of(
+            "Branch 0 "
+                + "30578b15c39820d5ffa89c815f130f6956988708f0979c215d9c83d61948df0c"
+                + "db56114e00fdd4c1f85c892bf35ac9a89289aaecb1ebd0a96cde606a748b5d71"
+                + "ad3faea0e42ef8f07b058a5ad98f1aec0a5785a665f01793e7de26a7d74153d1"
+                + "0000000000000000000000000000000000000000000000000000000000000000"),
+        trie.getProof("dog").steps().map(MerklePatriciaTrieTest::describe));
+    assertEquals(
+        List.of("Branch 0 " + mouseNeighbors),
+        trie.getProof("mouse").steps().map(MerklePatriciaTrieTest::describe));
+    assertEquals(
+        List.of(
+            "Branch 0 " + mouseNeighbors,
+            "Leaf 0 47c5c28cae2574cdf5a194fe7717de68f8276f4bf83e653830925056aeb32a48"
+                + " f579545f36d024bd2c03533eeab8b0bbad7e2d4f4ab4ee0b63164fcb7ed4b68e"),
+        trie.getProof("parrot").steps().map(MerklePatriciaTrieTest::describe));
+
+    // including_1, excluding_1 and including_2
+    assertEquals(
+        "4cd512f22def4de345e77095fde41faa5477562601b1201cbc7c3f4eff803710",
+        hex(
+            MerklePatriciaTrie.<String, String>empty(fromStringFun(), fromStringFun())
+                .insert("dog", "woof")
+                .rootHash()));
+    assertEquals(
+        "a7796d388728f943368409e830228d0b69cfdc35e3233403193b1260eddbe278",
+        hex(trie.delete("mouse").rootHash()));
+    assertEquals(
+        "2b1dfe554334b76a162c444f20ca33957f6ed9e81cf924a7ea4e59508e6e7584",
+        hex(trie.insert("parrot", "squawk").rootHash()));
+  }
+
+  @Test
+  public void testOrderIndependent() {
+    val entries = entries(500);
+    val expected = MerklePatriciaTrie.fromMap(entries, fromStringFun(), fromStringFun());
+
+    val keys = new ArrayList<>(entries.keySet());
+    Collections.shuffle(keys, new Random(42));
+
+    var trie = MerklePatriciaTrie.<String, String>empty(fromStringFun(), fromStringFun());
+    for (val key : keys) {
+      trie = trie.insert(key, entries.get(key));
+    }
+    assertArrayEquals(expected.rootHash(), trie.rootHash());
+    assertEquals(500, trie.size());
+
+    // replacing a value keeps the size
+    val replaced = trie.insert("key-7", "other");
+    assertEquals(500, replaced.size());
+    assertEquals("other", replaced.get("key-7").orElseThrow());
+    assertFalse(java.util.Arrays.equals(trie.rootHash(), replaced.rootHash()));
+    assertArrayEquals(trie.rootHash(), replaced.insert("key-7", "value-7").rootHash());
+
+    for (val key : keys) {
+      trie = trie.delete(key);
+    }
+    assertTrue(trie.isEmpty());
+    assertArrayEquals(new byte[32], trie.rootHash());
+    assertSame(trie, trie.delete("key-1"));
+  }
+
+  @Test
+  public void testProofsMatchInsertAndDelete() {
+    val entries = entries(300);
+    val trie = MerklePatriciaTrie.fromMap(entries, fromStringFun(), fromStringFun());
+    val rootHash = trie.rootHash();
+
+    for (val entry : entries.entrySet()) {
+      val key = entry.getKey();
+      val proof = trie.getProof(key);
+
+      assertTrue(
+          MerklePatriciaTrie.verifyMembership(
+              rootHash, key, entry.getValue(), proof, fromStringFun(), fromStringFun()));
+      assertFalse(
+          MerklePatriciaTrie.verifyMembership(
+              rootHash, key, "other", proof, fromStringFun(), fromStringFun()));
+      assertFalse(MerklePatriciaTrie.verifyNonMembership(rootHash, key, proof, fromStringFun()));
+      assertArrayEquals(trie.delete(key).rootHash(), proof.excluding(bytes(key)));
+    }
+
+    for (int i = 300; i < 400; i++) {
+      val key = "key-" + i;
+      val proof = trie.getProof(key);
+
+      assertTrue(MerklePatriciaTrie.verifyNonMembership(rootHash, key, proof, fromStringFun()));
+      assertFalse(
+          MerklePatriciaTrie.verifyMembership(
+              rootHash, key, "value", proof, fromStringFun(), fromStringFun()));
+      assertArrayEquals(
+          trie.insert(key, "value").rootHash(), proof.including(bytes(key), bytes("value")));
+    }
+  }
+
+  @Test
+  public void testProofSteps() {
+    val trie = MerklePatriciaTrie.fromMap(entries(10_000), fromStringFun(), fromStringFun());
+    val proof = trie.getProof("key-42");
+
+    // about log16(10000) branches, the deepest ones with a single other child
+    assertTrue(proof.steps().size() >= 3 && proof.steps().size() <= 6);
+    assertInstanceOf(ProofStep.Branch.class, proof.steps().head());
+
+    val data = (ListPlutusData) proof.toPlutusData();
+    assertEquals(proof.steps().size(), data.getPlutusDataList().size());
+    assertEquals(0, ((ConstrPlutusData) data.getPlutusDataList().get(0)).getAlternative());
+  }
+
+  @Test
+  public void testMalformedProof() {
+    val trie = animals();
+    val steps = trie.getProof("dog").steps();
+    val malformed = new TrieProof(steps.prepend(new ProofStep.Branch(70, new byte[128])));
+
+    assertFalse(malformed.has(trie.rootHash(), bytes("dog"), bytes("woof")));
+    assertFalse(malformed.miss(trie.rootHash(), bytes("dog")));
+    assertThrows(IllegalArgumentException.class, () -> malformed.excluding(bytes("dog")));
+
+    val truncated =
+        new TrieProof(steps.update(0, new ProofStep.Branch(steps.head().skip(), new byte[96])));
+    assertFalse(truncated.has(trie.rootHash(), bytes("dog"), bytes("woof")));
+  }
+
+  @Test
+  public void testForgedNonMembership() {
+    val trie = animals();
+    val rootHash = trie.rootHash();
+
+    for (val entry : trie.toList()) {
+      val key = entry.getKey();
+      val proof = trie.getProof(key);
+
+      // the leaf of the key posing as the only other child of a branch below its own
+      val forged =
+          new TrieProof(
+              proof
+                  .steps()
+                  .append(
+                      new ProofStep.Leaf(
+                          0, sha2_256(bytes(key)), sha2_256(bytes(entry.getValue())))));
+      assertFalse(forged.miss(rootHash, bytes(key)));
+      assertFalse(MerklePatriciaTrie.verifyNonMembership(rootHash, key, forged, fromStringFun()));
+      assertThrows(IllegalArgumentException.class, () -> forged.excluding(bytes(key)));
+    }
+
+    // a neighbour in the slot of the key is rejected as well
+    val path = sha2_256(bytes("dog"));
+    val fork =
+        new TrieProof(
+            List.of(
+                new ProofStep.Fork(
+                    0, new ProofStep.Neighbor((path[0] & 0xff) >>> 4, new byte[0], new byte[32]))));
+    assertFalse(fork.miss(rootHash, bytes("dog")));
+    assertThrows(IllegalArgumentException.class, () -> fork.including(bytes("dog"), bytes("woof")));
+  }
+
+  private static MerklePatriciaTrie<String, String> animals() {
+    return MerklePatriciaTrie.<String, String>empty(fromStringFun(), fromStringFun())
+        .insert("dog", "woof")
+        .insert("cat", "meow")
+        .insert("mouse", "squeak")
+        .insert("horse", "neigh");
+  }
+
+  private static String describe(ProofStep step) {
+    if (step instanceof ProofStep.Branch b) {
+      return "Branch " + b.skip() + " " + hex(b.neighbors());
+    }
+    if (step instanceof ProofStep.Fork f) {
+      val neighbor = f.neighbor();
+      return "Fork %d %d %s %s"
+          .formatted(f.skip(), neighbor.nibble(), hex(neighbor.prefix()), hex(neighbor.root()));
+    }
+    val l = (ProofStep.Leaf) step;
+    return "Leaf " + l.skip() + " " + hex(l.key()) + " " + hex(l.value());
+  }
+
+  private static String hex(byte[] bytes) {
+    return HexFormat.of().formatHex(bytes);
+  }
+
+  private static LinkedHashMap<String, String> entries(int size) {
+    val entries = new LinkedHashMap<String, String>();
+    IntStream.range(0, size).forEach(i -> entries.put("key-" + i, "value-" + i));
+
+    return entries;
+  }
+
+  private static byte[] bytes(String str) {
+    return str.getBytes(UTF_8);
+  }
+
+  private static Function<String, byte[]> fromStringFun() {
+    return str -> str.getBytes(UTF_8);
+  }
+}
@@ -0,0 +1,36 @@
+package org.cardanofoundation.util;
+
+import static com.bloxbean.cardano.client.util.HexUtil.encodeHexString;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+public class HashingTest {
+
+  @Test
+  public void testCombineHashIntoOut() {
+    val left = Hashing.sha2_256("left");
+    val right = Hashing.sha2_256("right");
+    val out = new byte[32];
+
+    assertSame(out, Hashing.combineHash(left, right, out));
+    assertArrayEquals(Hashing.combineHash(left, right), out);
+    // out may be one of the inputs
+    assertArrayEquals(Hashing.combineHash(left, right), Hashing.combineHash(left, right, left));
+  }
+
+  @Test
+  public void testShortOutKeepsDigestClean() {
+    val hash = Hashing.sha2_256("item");
+
+    assertThrows(
+        IllegalArgumentException.class, () -> Hashing.combineHash(hash, hash, new byte[16]));
+    assertEquals(
+        "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855",
+        encodeHexString(Hashing.sha2_256(new byte[0])));
+  }
+}